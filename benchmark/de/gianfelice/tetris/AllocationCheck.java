@@ -0,0 +1,158 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris;
+
+// --------------------------------- Import(s) ---------------------------------
+import de.gianfelice.tetris.ai.Heuristic;
+import de.gianfelice.tetris.ai.Placement;
+import de.gianfelice.tetris.ai.Planner;
+import de.gianfelice.tetris.engine.Action;
+import de.gianfelice.tetris.engine.Shape;
+import de.gianfelice.tetris.tetrominos.Tetromino;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Plays a game without display and fails, if moving, falling or saving a
+ * tetromino allocates any memory. The moves are chosen by a {@link Planner},
+ * whose search is not measured. Only the calls into the application are
+ * measured by the allocation-counter of the thread.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public final class AllocationCheck {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The tetrominos to play before measuring. */
+    private static final int WARMUP = 1000;
+
+    /** The tetrominos to measure. */
+    private static final int PIECES = 1000;
+
+    /** The counter of allocated bytes. */
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean)
+            ManagementFactory.getThreadMXBean();
+
+    /** The bytes allocated by a measurement without any code inside. */
+    private static long overhead = Long.MAX_VALUE;
+
+    /** The bytes allocated by the application. */
+    private static long bytes;
+
+    /** The number of measured moves and frames. */
+    private static long moves;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * No instances needed.
+     */
+    private AllocationCheck() {}
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Plays the game and compares the allocated bytes.
+     *
+     * @param args Not used
+     */
+    public static void main(String[] args) {
+        if (!THREADS.isThreadAllocatedMemorySupported()) {
+            System.err.println("Allocation-counters are not supported!");
+            System.exit(2);
+        }
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+        for (int i = 0; i < 100; i++) {
+            long start = allocated();
+            overhead = Math.min(overhead, allocated() - start);
+        }
+
+        Tetris tetris = new Tetris(Boards.getAssetManager(), Boards.create(0));
+        Planner planner = new Planner(Heuristic.DEFAULT, 2);
+        for (int i = 0; i < WARMUP + PIECES; i++) {
+            Tetromino current = tetris.getCurrent();
+            Shape[] pieces = {current.getShape(), tetris.getNext().getShape()};
+            Placement p = planner.plan(tetris.getField().getBoard(), pieces,
+                    current.getX(), current.getY());
+            if (p == null) {
+                System.err.println("The game is over after " + i
+                        + " tetrominos!");
+                System.exit(2);
+            }
+            if (i == WARMUP) bytes = moves = 0;
+            play(tetris, current, p);
+        }
+
+        System.out.printf("%d bytes in %d moves of %d tetrominos%n", bytes,
+                moves, PIECES);
+        if (bytes > 0) {
+            System.err.println("Moving tetrominos allocates memory!");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Moves a tetromino to a placement, drops it and lets the frames pass
+     * until it is saved. Only the calls into the application are measured,
+     * the update of the scene is left to the engine.
+     *
+     * @param tetris  The application
+     * @param current The current tetromino
+     * @param p       The placement
+     */
+    private static void play(Tetris tetris, Tetromino current, Placement p) {
+        int states = current.getShape().getStates();
+        int rotations = (p.getState() - current.getState() + states) % states;
+        for (; rotations > 0; rotations--) perform(tetris, Action.ROTATE);
+        for (int dx = p.getX() - current.getX(); dx != 0;) {
+            perform(tetris, dx < 0 ? Action.LEFT : Action.RIGHT);
+            dx += dx < 0 ? 1 : -1;
+        }
+        perform(tetris, Action.DROP);
+
+        for (long spawned = tetris.getSpawned();
+                tetris.getSpawned() == spawned;) {
+            long before = allocated();
+            tetris.simpleUpdate(Tetris.TICK);
+            count(before);
+            tetris.getRootNode().updateLogicalState(Tetris.TICK);
+            tetris.getRootNode().updateGeometricState();
+        }
+    }
+
+    /**
+     * Applies and measures an action.
+     *
+     * @param tetris The application
+     * @param action The action
+     */
+    private static void perform(Tetris tetris, Action action) {
+        long before = allocated();
+        tetris.perform(action);
+        count(before);
+    }
+
+    /**
+     * Counts a measured move.
+     *
+     * @param before The allocated bytes before the move
+     */
+    private static void count(long before) {
+        bytes += allocated() - before - overhead;
+        moves++;
+    }
+
+    /**
+     * Returns the bytes allocated by the current thread so far.
+     *
+     * @return The bytes
+     */
+    private static long allocated() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+}
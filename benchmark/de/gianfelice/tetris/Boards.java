@@ -0,0 +1,171 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris;
+
+// --------------------------------- Import(s) ---------------------------------
+import com.jme3.asset.AssetManager;
+import com.jme3.asset.DesktopAssetManager;
+import de.gianfelice.tetris.tetrominos.I;
+import de.gianfelice.tetris.tetrominos.J;
+import de.gianfelice.tetris.tetrominos.L;
+import de.gianfelice.tetris.tetrominos.O;
+import de.gianfelice.tetris.tetrominos.S;
+import de.gianfelice.tetris.tetrominos.T;
+import de.gianfelice.tetris.tetrominos.Tetromino;
+import de.gianfelice.tetris.tetrominos.Z;
+import java.util.Random;
+
+/**
+ * Prepares fields with a reproducible amount of boxes for the benchmarks.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+final class Boards {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The seed for all generated fields. */
+    private static final long SEED = 42;
+
+    /** Tries to place a tetromino before the field counts as filled. */
+    private static final int TRIES = 100;
+
+    /** The shared assetmanager without any display. */
+    private static AssetManager assetManager;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * No instances needed.
+     */
+    private Boards() {}
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Returns an assetmanager, that works without a display.
+     *
+     * @return The assetmanager
+     */
+    static synchronized AssetManager getAssetManager() {
+        if (assetManager == null) assetManager = new DesktopAssetManager(true);
+        return assetManager;
+    }
+
+    /**
+     * Creates a tetromino of a given kind.
+     *
+     * @param kind  The kind between 0 and 6
+     * @param field The field of the game
+     * @return The newly created tetromino
+     */
+    static Tetromino create(int kind, Field field) {
+        AssetManager am = getAssetManager();
+        switch (kind) {
+            case 0:
+                return new I("Benchmark", am, field);
+            case 1:
+                return new J("Benchmark", am, field);
+            case 2:
+                return new L("Benchmark", am, field);
+            case 3:
+                return new O("Benchmark", am, field);
+            case 4:
+                return new S("Benchmark", am, field);
+            case 5:
+                return new T("Benchmark", am, field);
+            default:
+                return new Z("Benchmark", am, field);
+        }
+    }
+
+    /**
+     * Creates a field and drops random tetrominos into it, until the stack
+     * reaches the given percentage of the height. Full rows are removed, so
+     * the result looks like a real game.
+     *
+     * @param fill The percentage of the height to fill
+     * @return The prepared field
+     */
+    static Field create(int fill) {
+        Field field = new Field(getAssetManager());
+        fill(field, Field.HEIGHT * fill / 100, Field.WIDTH);
+        return field;
+    }
+
+    /**
+     * Creates a field, whose four lowest rows are full except for the last
+     * column. Random tetrominos are dropped on top of it like in
+     * {@link #create(int)}, so a vertical I in the last column removes four
+     * rows below the given filling.
+     *
+     * @param fill The percentage of the height to fill
+     * @return The prepared field
+     */
+    static Field createWell(int fill) {
+        Field field = new Field(getAssetManager());
+        for (int y = 0; y < 4; y++) {
+            for (int x = 0; x < Field.WIDTH - 2; x += 4) {
+                Tetromino t = create(0, field);
+                t.rotate();
+                t.setLocalTranslation(x, y - 1, 0);
+                field.save(t);
+            }
+        }
+        Tetromino t = create(0, field);
+        t.setLocalTranslation(Field.WIDTH - 3, 0, 0);
+        field.save(t);
+        fill(field, Math.max(4, Field.HEIGHT * fill / 100), Field.WIDTH - 1);
+        return field;
+    }
+
+    /**
+     * Drops random tetrominos into a field.
+     *
+     * @param field The field to fill
+     * @param top   The row, that no tetromino may exceed
+     * @param width The columns, that may be used
+     */
+    private static void fill(Field field, int top, int width) {
+        Random random = new Random(SEED);
+        for (int i = 0; i < TRIES && top > 0; i++) {
+            Tetromino t = create(random.nextInt(7), field);
+            for (int r = random.nextInt(4); r > 0; r--) t.rotate();
+            t.setLocalTranslation(random.nextInt(width) - 1,
+                    Field.HEIGHT - 4, 0);
+            if (!t.validTranslate(0, 0) || right(t) >= width) continue;
+            t.drop();
+            if (t.getLocalTranslation().y + top(t) >= top) continue;
+            field.save(t);
+            field.checkRows();
+        }
+    }
+
+    /**
+     * Calculates the rightmost column occupied by a tetromino.
+     *
+     * @param t The tetromino
+     * @return The column
+     */
+    private static int right(Tetromino t) {
+        int mask = t.getMask(), x = 3;
+        while ((mask & (0x1111 << x)) == 0) x--;
+        return (int) t.getLocalTranslation().x + x;
+    }
+
+    /**
+     * Calculates the number of rows used by a tetromino inside its 4x4.
+     *
+     * @param t The tetromino
+     * @return The height including the empty rows below
+     */
+    private static int top(Tetromino t) {
+        int mask = t.getMask(), y = 3;
+        while ((mask & (0xF << (y * 4))) == 0) y--;
+        return y + 1;
+    }
+
+}
@@ -0,0 +1,222 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris;
+
+// --------------------------------- Import(s) ---------------------------------
+import com.jme3.math.ColorRGBA;
+import de.gianfelice.tetris.tetrominos.Tetromino;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the operations of the field, that run whenever a tetromino moves
+ * or locks.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FieldBenchmark {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /**
+     * The number of fields locked into by one invocation, so that reading
+     * the timer is negligible against the measured work.
+     */
+    static final int BATCH = 256;
+
+    // -------------------------------- State(s) -------------------------------
+    /**
+     * A field, that is not changed by the benchmark.
+     */
+    @State(Scope.Thread)
+    public static class Filled {
+
+        /** The percentage of the height, that is filled with boxes. */
+        @Param({"0", "25", "50", "75"})
+        public int fill;
+
+        /** The field to measure. */
+        Field field;
+
+        /**
+         * Prepares the field.
+         */
+        @Setup(Level.Trial)
+        public void prepare() {
+            field = Boards.create(fill);
+        }
+
+    }
+
+    /**
+     * Many equal fields with a vertical I above a well. Locking changes the
+     * fields, so they are restored from their colors before every
+     * invocation, which neither allocates nor creates any buffers.
+     */
+    @State(Scope.Thread)
+    public static class Locking {
+
+        /** The percentage of the height, that is filled with boxes. */
+        @Param({"0", "25", "50", "75"})
+        public int fill;
+
+        /** The fields to measure. */
+        Field[] fields;
+
+        /** The boxes of the fields before locking. */
+        ColorRGBA[] colors;
+
+        /** The tetromino to lock, which completes four rows. */
+        Tetromino dropped;
+
+        /**
+         * Creates the fields and the tetromino.
+         */
+        @Setup(Level.Trial)
+        public void prepare() {
+            fields = createWells(fill);
+            colors = fields[0].getColors();
+            dropped = Boards.create(0, fields[0]);
+            dropped.setLocalTranslation(Field.WIDTH - 2, Field.HEIGHT - 4, 0);
+            dropped.drop();
+        }
+
+        /**
+         * Restores the fields.
+         */
+        @Setup(Level.Invocation)
+        public void reset() {
+            for (Field field : fields) field.fill(colors);
+        }
+
+    }
+
+    /**
+     * Many equal fields with an O above the stack beside the well. Since
+     * the well stays open, locking the O never completes a row. The fields
+     * are restored like those of {@link Locking}.
+     */
+    @State(Scope.Thread)
+    public static class Stacking {
+
+        /** The percentage of the height, that is filled with boxes. */
+        @Param({"0", "25", "50", "75"})
+        public int fill;
+
+        /** The fields to measure. */
+        Field[] fields;
+
+        /** The boxes of the fields before locking. */
+        ColorRGBA[] colors;
+
+        /** The tetromino to lock, which completes no row. */
+        Tetromino dropped;
+
+        /**
+         * Creates the fields and the tetromino.
+         */
+        @Setup(Level.Trial)
+        public void prepare() {
+            fields = createWells(fill);
+            colors = fields[0].getColors();
+            dropped = Boards.create(3, fields[0]);
+            dropped.setLocalTranslation(0, Field.HEIGHT - 4, 0);
+            dropped.drop();
+        }
+
+        /**
+         * Restores the fields.
+         */
+        @Setup(Level.Invocation)
+        public void reset() {
+            for (Field field : fields) field.fill(colors);
+        }
+
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Looks up every cell of the field.
+     *
+     * @param s  The field
+     * @param bh Sink for the results
+     */
+    @Benchmark
+    @OperationsPerInvocation(Field.WIDTH * Field.HEIGHT)
+    public void isOccupied(Filled s, Blackhole bh) {
+        for (int x = 0; x < Field.WIDTH; x++) {
+            for (int y = 0; y < Field.HEIGHT; y++)
+                bh.consume(s.field.isOccupied(x, y));
+        }
+    }
+
+    /**
+     * Locks a tetromino and scans its rows without finding a completed one.
+     *
+     * @param s The fields and the tetromino
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void saveAndCheckRows(Stacking s) {
+        for (Field field : s.fields) {
+            field.save(s.dropped);
+            field.checkRows();
+        }
+    }
+
+    /**
+     * Locks a tetromino inside the field.
+     *
+     * @param s The fields and the tetromino
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void save(Locking s) {
+        for (Field field : s.fields) field.save(s.dropped);
+    }
+
+    /**
+     * Locks a tetromino and removes the four completed rows.
+     *
+     * @param s The fields and the tetromino
+     */
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void saveAndRemoveLines(Locking s) {
+        for (Field field : s.fields) {
+            field.save(s.dropped);
+            field.checkRows();
+        }
+    }
+
+    /**
+     * Creates the fields locked into by one invocation.
+     *
+     * @param fill The percentage of the height to fill
+     * @return The equal fields
+     */
+    private static Field[] createWells(int fill) {
+        Field[] fields = new Field[BATCH];
+        for (int i = 0; i < fields.length; i++)
+            fields[i] = Boards.createWell(fill);
+        return fields;
+    }
+
+}
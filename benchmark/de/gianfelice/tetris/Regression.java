@@ -0,0 +1,149 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris;
+
+// --------------------------------- Import(s) ---------------------------------
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compares two CSV-results of the benchmarks and fails, if a benchmark got
+ * slower than allowed. A change within the error bounds of both results is
+ * taken as noise, no matter how large it is.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public final class Regression {
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * No instances needed.
+     */
+    private Regression() {}
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Compares the results.
+     *
+     * @param args The baseline, the current results and the allowed slowdown
+     *             in percent
+     * @throws IOException If a file could not be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.err.println("Usage: Regression <baseline.csv> <current.csv>"
+                    + " <percent>");
+            System.exit(2);
+        }
+        Map<String, String[]> baseline = read(args[0]);
+        Map<String, String[]> current = read(args[1]);
+        double allowed = Double.parseDouble(args[2]) / 100;
+
+        int failed = 0;
+        for (Map.Entry<String, String[]> e : current.entrySet()) {
+            String[] base = baseline.get(e.getKey());
+            if (base == null) continue;
+            double before = number(base[4]);
+            double now = number(e.getValue()[4]);
+            double error = error(base[5]) + error(e.getValue()[5]);
+            double change = (now - before) / before;
+            if (e.getValue()[1].equals("thrpt")) change = -change;
+            boolean slower = change > allowed
+                    && Math.abs(now - before) > error;
+            if (slower) failed++;
+            System.out.printf("%-8s %+7.1f%% (error %.1f%%)  %s%n",
+                    slower ? "SLOWER" : "ok", change * 100,
+                    error / before * 100, e.getKey());
+        }
+        if (failed > 0) {
+            System.err.println(failed + " benchmark(s) got slower than "
+                    + args[2] + "%!");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Reads the results of JMH's CSV-format.
+     *
+     * @param file The file to read
+     * @return The columns for each benchmark and its parameters
+     * @throws IOException If the file could not be read
+     */
+    private static Map<String, String[]> read(String file) throws IOException {
+        Map<String, String[]> results = new LinkedHashMap<>();
+        try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+            String line = in.readLine();
+            while ((line = in.readLine()) != null) {
+                String[] cols = split(line);
+                StringBuilder key = new StringBuilder(cols[0]);
+                for (int i = 7; i < cols.length; i++)
+                    key.append(' ').append(cols[i]);
+                results.put(key.toString(), cols);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Splits a line of CSV into its columns. Columns may be quoted, so that
+     * they contain commas, e.g. numbers written with a decimal comma.
+     *
+     * @param line The line
+     * @return The columns without quotes
+     */
+    private static String[] split(String line) {
+        List<String> cols = new ArrayList<>();
+        StringBuilder col = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"' && quoted && i + 1 < line.length()
+                    && line.charAt(i + 1) == '"') {
+                col.append(c);
+                i++;
+            } else if (c == '"') {
+                quoted = !quoted;
+            } else if (c == ',' && !quoted) {
+                cols.add(col.toString());
+                col.setLength(0);
+            } else {
+                col.append(c);
+            }
+        }
+        cols.add(col.toString());
+        return cols.toArray(new String[cols.size()]);
+    }
+
+    /**
+     * Parses a number written with a decimal point or comma.
+     *
+     * @param col The column
+     * @return The number
+     */
+    private static double number(String col) {
+        return Double.parseDouble(col.trim().replace(',', '.'));
+    }
+
+    /**
+     * Parses an error bound, which is missing for a single measurement.
+     *
+     * @param col The column
+     * @return The error or 0, if there is none
+     */
+    private static double error(String col) {
+        double error = number(col);
+        return Double.isNaN(error) ? 0 : error;
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris;
+
+// --------------------------------- Import(s) ---------------------------------
+import de.gianfelice.tetris.ai.Heuristic;
+import de.gianfelice.tetris.ai.Placement;
+import de.gianfelice.tetris.ai.Planner;
+import de.gianfelice.tetris.engine.Action;
+import de.gianfelice.tetris.engine.Board;
+import de.gianfelice.tetris.engine.Game;
+import de.gianfelice.tetris.engine.Shape;
+import de.gianfelice.tetris.metrics.Metrics;
+import de.gianfelice.tetris.replay.ReplayReader;
+import de.gianfelice.tetris.replay.ReplayWriter;
+import de.gianfelice.tetris.replay.Replayer;
+import de.gianfelice.tetris.tetrominos.Tetromino;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Records a game without display until it is over, simulates the recording
+ * by the {@link Replayer} and fails, if both games do not end the same way.
+ * The first tetrominos are placed by a {@link Planner}, so some lines are
+ * removed, the others are dropped at once, so the game is soon over.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public final class ReplayCheck {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The tetrominos placed by the planner. */
+    private static final int PLANNED = 100;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * No instances needed.
+     */
+    private ReplayCheck() {}
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Plays, records and simulates the game and compares the results.
+     *
+     * @param args Not used
+     * @throws IOException If the recording failed
+     */
+    public static void main(String[] args) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Field field = Boards.create(0);
+        Board board = field.getBoard();
+        ReplayWriter recorder = new ReplayWriter(out, board.getWidth(),
+                board.getHeight(), 0);
+        Tetris tetris = new Tetris(Boards.getAssetManager(), field, recorder);
+        Planner planner = new Planner(Heuristic.DEFAULT, 2);
+        for (int i = 0; !board.isGameOver(); i++) {
+            Tetromino current = tetris.getCurrent();
+            Placement p = null;
+            if (i < PLANNED) {
+                Shape[] pieces = {current.getShape(),
+                        tetris.getNext().getShape()};
+                p = planner.plan(board, pieces, current.getX(),
+                        current.getY());
+            }
+            if (p != null) play(tetris, current, p);
+            tetris.perform(Action.DROP);
+            for (long spawned = tetris.getSpawned();
+                    tetris.getSpawned() == spawned && !board.isGameOver();)
+                tetris.simpleUpdate(Tetris.TICK);
+        }
+        recorder.close();
+
+        ReplayReader replay =
+                new ReplayReader(ByteBuffer.wrap(out.toByteArray()));
+        Game game = Replayer.simulate(replay);
+        Metrics metrics = tetris.getMetrics();
+        System.out.printf("game:   %d pieces, %d lines%n", metrics.getPieces(),
+                metrics.getLines());
+        System.out.printf("replay: %d pieces, %d lines%s%n", game.getPieces(),
+                game.getLines(), game.isGameOver() ? ", game over" : "");
+        if (!game.isGameOver() || replay.getMissing() > 0
+                || game.getPieces() != metrics.getPieces()
+                || game.getLines() != metrics.getLines()
+                || game.getBoard().getHash() != board.getHash()) {
+            System.err.println("The replay differs from the game!");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Rotates and moves a tetromino to a placement.
+     *
+     * @param tetris  The application
+     * @param current The current tetromino
+     * @param p       The placement
+     */
+    private static void play(Tetris tetris, Tetromino current, Placement p) {
+        int states = current.getShape().getStates();
+        int rotations = (p.getState() - current.getState() + states) % states;
+        for (; rotations > 0; rotations--) tetris.perform(Action.ROTATE);
+        for (int dx = p.getX() - current.getX(); dx != 0;) {
+            tetris.perform(dx < 0 ? Action.LEFT : Action.RIGHT);
+            dx += dx < 0 ? 1 : -1;
+        }
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris;
+
+// --------------------------------- Import(s) ---------------------------------
+import de.gianfelice.tetris.engine.Shape;
+import de.gianfelice.tetris.tetrominos.Tetromino;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the spawning of new tetrominos by the application.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TetrisBenchmark {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The application, that is never started. */
+    private Tetris tetris;
+
+    /** A pool, whose tetrominos are given back. */
+    private TetrominoPool pool;
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Prepares the application.
+     */
+    @Setup(Level.Trial)
+    public void prepare() {
+        Field field = Boards.create(0);
+        tetris = new Tetris(Boards.getAssetManager(), field);
+        pool = new TetrominoPool(Boards.getAssetManager(), field);
+    }
+
+    /**
+     * Fetches a random tetromino, that is never given back, so a new one is
+     * created every time.
+     *
+     * @return The tetromino
+     */
+    @Benchmark
+    public Tetromino createTetromino() {
+        return tetris.createTetromino();
+    }
+
+    /**
+     * Fetches a tetromino and gives it back like after saving it, so it gets
+     * recycled.
+     *
+     * @return The tetromino
+     */
+    @Benchmark
+    public Tetromino recycleTetromino() {
+        Tetromino t = pool.acquire(Shape.T);
+        pool.release(t);
+        return t;
+    }
+
+}
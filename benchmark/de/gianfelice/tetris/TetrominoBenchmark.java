@@ -0,0 +1,93 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris;
+
+// --------------------------------- Import(s) ---------------------------------
+import de.gianfelice.tetris.tetrominos.Tetromino;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the collision-checks of a falling tetromino.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class TetrominoBenchmark {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The percentage of the height, that is filled with boxes. */
+    @Param({"0", "25", "50", "75"})
+    public int fill;
+
+    /** The kind of the tetromino between 0 and 6. */
+    @Param({"0", "5"})
+    public int kind;
+
+    /** The field below the tetromino. */
+    private Field field;
+
+    /** The tetromino to measure. */
+    private Tetromino current;
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Prepares the field and puts the tetromino to the spawn point.
+     */
+    @Setup(Level.Trial)
+    public void prepare() {
+        field = Boards.create(fill);
+        current = Boards.create(kind, field);
+        current.setLocalTranslation(3, Field.HEIGHT - 4, 0);
+    }
+
+    /**
+     * Checks a move one row down.
+     *
+     * @return The result
+     */
+    @Benchmark
+    public boolean validTranslate() {
+        return current.validTranslate(0, -1);
+    }
+
+    /**
+     * Checks a rotation.
+     *
+     * @return The result
+     */
+    @Benchmark
+    public boolean validRotate() {
+        return current.validRotate();
+    }
+
+    /**
+     * Drops the tetromino from the spawn point onto the stack. Putting it
+     * back to the spawn point is measured as well.
+     *
+     * @return The tetromino
+     */
+    @Benchmark
+    public Tetromino drop() {
+        current.setLocalTranslation(3, Field.HEIGHT - 4, 0);
+        current.drop();
+        return current;
+    }
+
+}
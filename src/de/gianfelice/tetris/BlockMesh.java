@@ -0,0 +1,214 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris;
+
+// --------------------------------- Import(s) ---------------------------------
+import com.jme3.math.ColorRGBA;
+import com.jme3.scene.Mesh;
+import com.jme3.scene.VertexBuffer.Type;
+import com.jme3.scene.VertexBuffer.Usage;
+import com.jme3.util.BufferUtils;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * A single mesh holding one box for every cell of the field. Empty cells are
+ * collapsed to a point, so they are not drawn. The color of a box is stored
+ * per vertex. Changing a cell only marks its row, and only the marked rows
+ * are written to the buffers by {@link #flush()}.
+ * <p>
+ * The buffers only hold the lowest rows of the field and double, as soon as
+ * a box is set above them, so a tall field costs memory and drawing only
+ * for the rows, that have been reached.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class BlockMesh extends Mesh {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The gap between the border of a cell and its box. */
+    private static final float GAP = .05f;
+
+    /** The number of rows held at first. */
+    private static final int ROWS = 32;
+
+    /** The colors of the held cells from bottom to top or null, if empty. */
+    private ColorRGBA[] cells;
+
+    /** The positions of the vertices. */
+    private FloatBuffer positions;
+
+    /** The colors of the vertices. */
+    private FloatBuffer colors;
+
+    /** Width of the field. */
+    private final int width;
+
+    /** Height of the field. */
+    private final int height;
+
+    /** The number of rows held by the buffers. */
+    private int capacity;
+
+    /** The row above the highest one, that may contain a box. */
+    private int top;
+
+    /** The lowest row, that has to be written. */
+    private int dirtyFrom;
+
+    /** The row above the highest one, that has to be written. */
+    private int dirtyTo;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates an empty mesh for a field.
+     *
+     * @param width  The width of the field
+     * @param height The height of the field
+     */
+    public BlockMesh(int width, int height) {
+        this.width = width;
+        this.height = height;
+        cells = new ColorRGBA[0];
+        allocate(Math.min(height, ROWS));
+        getBuffer(Type.Position).setUsage(Usage.Dynamic);
+        getBuffer(Type.Color).setUsage(Usage.Dynamic);
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Returns the color of a cell.
+     *
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     * @return The color or null, if the cell is empty
+     */
+    public ColorRGBA get(int x, int y) {
+        return y < capacity ? cells[y * width + x] : null;
+    }
+
+    /**
+     * Sets the color of a cell.
+     *
+     * @param x     The x-coordinate
+     * @param y     The y-coordinate
+     * @param color The color or null to empty the cell
+     */
+    public void set(int x, int y, ColorRGBA color) {
+        if (y >= capacity) {
+            if (color == null) return;
+            allocate(Math.min(height, Math.max(capacity * 2, y + 1)));
+        }
+        cells[y * width + x] = color;
+        if (color != null && y >= top) top = y + 1;
+        mark(y, y + 1);
+    }
+
+    /**
+     * Deletes several rows at once and moves the remaining rows down. Every
+     * row is moved at most once and only the rows up to the highest box are
+     * touched.
+     *
+     * @param rows  The rows to delete in ascending order
+     * @param count The number of rows to delete
+     */
+    public void removeRows(int[] rows, int count) {
+        if (count == 0) return;
+        int to = rows[0];
+        for (int y = to, c = 0; y < top; y++) {
+            if (c < count && rows[c] == y) c++;
+            else System.arraycopy(cells, y * width, cells, to++ * width, width);
+        }
+        for (int i = to * width; i < top * width; i++) cells[i] = null;
+        mark(rows[0], top);
+        top = to;
+    }
+
+    /**
+     * Writes all changed rows into the buffers.
+     */
+    public void flush() {
+        if (dirtyFrom >= dirtyTo) return;
+        for (int y = dirtyFrom; y < dirtyTo; y++) {
+            for (int x = 0; x < width; x++) write(x, y);
+        }
+        positions.clear();
+        colors.clear();
+        getBuffer(Type.Position).updateData(positions);
+        getBuffer(Type.Color).updateData(colors);
+        dirtyFrom = height;
+        dirtyTo = 0;
+    }
+
+    /**
+     * Creates the buffers for a number of rows and keeps the cells held so
+     * far. All rows are written by the next flush.
+     *
+     * @param rows The number of rows
+     */
+    private void allocate(int rows) {
+        ColorRGBA[] old = cells;
+        cells = new ColorRGBA[width * rows];
+        System.arraycopy(old, 0, cells, 0, old.length);
+        positions = BufferUtils.createFloatBuffer(cells.length * 4 * 3);
+        colors = BufferUtils.createFloatBuffer(cells.length * 4 * 4);
+        IntBuffer indices = BufferUtils.createIntBuffer(cells.length * 6);
+        for (int i = 0; i < cells.length; i++) {
+            int v = i * 4;
+            indices.put(v).put(v + 1).put(v + 2).put(v).put(v + 2).put(v + 3);
+        }
+        indices.flip();
+
+        setBuffer(Type.Position, 3, positions);
+        setBuffer(Type.Color, 4, colors);
+        setBuffer(Type.Index, 3, indices);
+        capacity = rows;
+        dirtyFrom = 0;
+        dirtyTo = rows;
+        flush();
+        updateBound();
+    }
+
+    /**
+     * Marks rows to be written by the next flush.
+     *
+     * @param from The lowest row
+     * @param to   The row above the highest one
+     */
+    private void mark(int from, int to) {
+        dirtyFrom = Math.min(dirtyFrom, from);
+        dirtyTo = Math.max(dirtyTo, to);
+    }
+
+    /**
+     * Writes the vertices of one cell.
+     *
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     */
+    private void write(int x, int y) {
+        int i = y * width + x;
+        ColorRGBA color = cells[i];
+        float size = color == null ? 0 : Palette.SIZE;
+        float left = x + GAP, bottom = y + GAP;
+
+        positions.position(i * 4 * 3);
+        positions.put(left).put(bottom).put(0);
+        positions.put(left + size).put(bottom).put(0);
+        positions.put(left + size).put(bottom + size).put(0);
+        positions.put(left).put(bottom + size).put(0);
+
+        if (color == null) color = ColorRGBA.BlackNoAlpha;
+        colors.position(i * 4 * 4);
+        for (int v = 0; v < 4; v++) {
+            colors.put(color.r).put(color.g).put(color.b).put(color.a);
+        }
+    }
+
+}
@@ -0,0 +1,135 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris;
+
+// --------------------------------- Import(s) ---------------------------------
+import com.jme3.app.Application;
+import com.jme3.app.state.AbstractAppState;
+import com.jme3.app.state.AppStateManager;
+import com.jme3.math.Vector3f;
+import de.gianfelice.tetris.ai.Placement;
+import de.gianfelice.tetris.ai.Planner;
+import de.gianfelice.tetris.engine.Action;
+import de.gianfelice.tetris.engine.Shape;
+import de.gianfelice.tetris.tetrominos.Tetromino;
+import java.util.concurrent.ForkJoinTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Plays the game instead of the keyboard. Whenever a new tetromino spawns,
+ * the {@link Planner} searches the best placement in the background and the
+ * bot steers the tetromino there by the same actions as the keys.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class Bot extends AbstractAppState {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The logger of the bot. */
+    private static final Logger LOG = Logger.getLogger(Bot.class.getName());
+
+    /** The planner searching the placements. */
+    private final Planner planner;
+
+    /** The game to play. */
+    private Tetris game;
+
+    /** The number of the tetromino, that has been planned for last. */
+    private long planned = -1;
+
+    /** The running search. */
+    private ForkJoinTask<Placement> search;
+
+    /** The time the running search started at in nanoseconds. */
+    private long started;
+
+    /** The duration of the last decision in nanoseconds. */
+    private long latency;
+
+    /** The longest decision so far in nanoseconds. */
+    private long maxLatency;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates the bot.
+     *
+     * @param planner The planner searching the placements
+     */
+    public Bot(Planner planner) {
+        this.planner = planner;
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void initialize(AppStateManager stateManager, Application app) {
+        super.initialize(stateManager, app);
+        game = (Tetris) app;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void update(float tpf) {
+        Tetromino current = game.getCurrent();
+        if (current == null) return;
+
+        if (game.getSpawned() != planned) {
+            planned = game.getSpawned();
+            Vector3f t = current.getLocalTranslation();
+            Shape[] pieces = new Shape[1 + game.getPreviewSize()];
+            pieces[0] = current.getShape();
+            for (int i = 1; i < pieces.length; i++)
+                pieces[i] = game.getPreview(i - 1).getShape();
+            started = System.nanoTime();
+            search = planner.submit(game.getField().getBoard(), pieces,
+                    (int) t.x, (int) t.y);
+        }
+        if (search == null || !search.isDone()) return;
+
+        Placement p = search.join();
+        search = null;
+        latency = System.nanoTime() - started;
+        maxLatency = Math.max(maxLatency, latency);
+        if (latency > Tetris.TICK * 1e9) LOG.log(Level.WARNING,
+                "Decision took {0} ms", latency / 1e6);
+        if (p == null) return;
+
+        int states = current.getShape().getStates();
+        int rotations = (p.getState() - current.getState() + states) % states;
+        for (int i = 0; i < rotations; i++) game.perform(Action.ROTATE);
+        int dx = p.getX() - (int) current.getLocalTranslation().x;
+        for (; dx < 0; dx++) game.perform(Action.LEFT);
+        for (; dx > 0; dx--) game.perform(Action.RIGHT);
+        game.perform(Action.DROP);
+    }
+
+    /**
+     * Returns the duration of the last decision.
+     *
+     * @return The duration in nanoseconds
+     */
+    public long getLatency() {
+        return latency;
+    }
+
+    /**
+     * Returns the longest decision so far.
+     *
+     * @return The duration in nanoseconds
+     */
+    public long getMaxLatency() {
+        return maxLatency;
+    }
+
+}
@@ -9,16 +9,20 @@ package de.gianfelice.tetris;
 
 // --------------------------------- Import(s) ---------------------------------
 import com.jme3.asset.AssetManager;
-import com.jme3.material.Material;
 import com.jme3.math.ColorRGBA;
 import com.jme3.scene.Geometry;
+import com.jme3.scene.Mesh;
 import com.jme3.scene.Node;
-import com.jme3.scene.shape.Quad;
+import com.jme3.scene.VertexBuffer.Type;
+import com.jme3.util.BufferUtils;
+import de.gianfelice.tetris.engine.Board;
 import de.gianfelice.tetris.tetrominos.Tetromino;
-import java.awt.Point;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
 
 /**
- * Inside the field, all tetrominos are collected and displayed.
+ * Inside the field, all tetrominos are collected and displayed. The rules are
+ * handled by the underlying {@link Board}, the field only shows its content.
  *
  * @author Matthias Gianfelice
  * @version 1.0.0.0
@@ -26,38 +30,89 @@ import java.awt.Point;
 public class Field extends Node {
 
     // ------------------------------ Attribute(s) -----------------------------
-    /** The field inside the borders. */
-    private Geometry[][] field;
+    /** The board holding the rules of the game. */
+    private Board board;
 
-    /** The material for the border-rectangles. */
-    private Material mat;
+    /** The mesh displaying all boxes inside the borders. */
+    private BlockMesh blocks;
 
-    /** Height of the field. */
+    /** The rows deleted by the last check from bottom to top. */
+    private int[] cleared;
+
+    /** The number of rows deleted by the last check. */
+    private int count;
+
+    /** Default height of the field. */
     public static final int HEIGHT = 19;
 
-    /** Width of the field. */
+    /** Default width of the field. */
     public static final int WIDTH = 10;
 
+    /** The gap between the border of a cell and its box. */
+    private static final float GAP = .05f;
+
     // ----------------------------- Constructor(s) ----------------------------
     /**
-     * Creates and prepares the field.
+     * Creates and prepares a field of the default size.
      *
      * @param assetManager The app's assetmanager
      */
     public Field(AssetManager assetManager) {
+        this(assetManager, WIDTH, HEIGHT);
+    }
+
+    /**
+     * Creates and prepares a field.
+     *
+     * @param assetManager The app's assetmanager
+     * @param width        The width of the field
+     * @param height       The height of the field
+     * @throws IllegalArgumentException If the dimensions are out of range
+     */
+    public Field(AssetManager assetManager, int width, int height) {
         super("Field");
-        field = new Geometry[WIDTH][HEIGHT];
-        mat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-        mat.setColor("Color", ColorRGBA.LightGray);
-
-        for (int i = 0; i <= HEIGHT; i++) {
-            createBox(-1, i - 1);
-            createBox(10, i - 1);
-            if (i < WIDTH) createBox(i, -1);
-        }
+        board = new Board(width, height);
+        Palette palette = Palette.get(assetManager);
+        cleared = new int[height];
+
+        blocks = new BlockMesh(width, height);
+        Geometry geom = new Geometry("Field#Blocks", blocks);
+        geom.setMaterial(palette.getMaterial());
+        attachChild(geom);
+
+        geom = new Geometry("Field#Border", createBorder(width, height));
+        geom.setMaterial(palette.getMaterial());
+        attachChild(geom);
     }
 
     // ------------------------------- Method(s) -------------------------------
+    /**
+     * Returns the board holding the rules of the game.
+     *
+     * @return The board
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Returns the column, where new tetrominos spawn.
+     *
+     * @return The x-coordinate of the spawn
+     */
+    public int getSpawnX() {
+        return (board.getWidth() - 4) / 2;
+    }
+
+    /**
+     * Returns the row, where new tetrominos spawn.
+     *
+     * @return The y-coordinate of the spawn
+     */
+    public int getSpawnY() {
+        return board.getHeight() - 4;
+    }
+
     /**
      * Checks, whether a given field is already occupied by another box.
      *
@@ -66,9 +121,18 @@ public class Field extends Node {
      * @return Whether the field is already occupied
      */
     public boolean isOccupied(int x, int y) {
-        if (x < 0 || x >= WIDTH) return true;
-        if (y < 0 || y >= HEIGHT) return true;
-        return field[x][y] != null;
+        return board.isOccupied(x, y);
+    }
+
+    /**
+     * Checks, whether a new tetromino fits into the field at its current
+     * position. If not, the game is over.
+     *
+     * @param current The new tetromino
+     * @return Whether the tetromino fits
+     */
+    public boolean spawn(Tetromino current) {
+        return board.spawn(current.getMask(), current.getX(), current.getY());
     }
 
     /**
@@ -78,62 +142,129 @@ public class Field extends Node {
      * @param current The tetromino to save
      */
     public void save(Tetromino current) {
-        Geometry[][] boxes = current.getBoxes();
-        Point p = current.getPosition();
-
-        for (int x = 0, pX = p.x; x < 4; x++, pX++) {
-            for (int y = 0, pY = p.y; y < 4; y++, pY++) {
-                if (boxes[x][y] == null) continue;
-                field[pX][pY] = boxes[x][y].clone();
-                field[pX][pY].setLocalTranslation(pX + .05f, pY + .05f, 0);
-                attachChild(field[pX][pY]);
-            }
+        int mask = current.getMask(), x = current.getX(), y = current.getY();
+        board.place(mask, x, y);
+
+        for (int i = 0; i < 16; i++) {
+            if ((mask & (1 << i)) == 0) continue;
+            blocks.set(x + (i & 3), y + (i >> 2), current.getColor());
         }
+        blocks.flush();
     }
 
     /**
-     * Checks, if a row is full and deletes it, if so.
+     * Deletes all full rows. Only the rows of the tetrominos saved since the
+     * last check are examined, and all full rows are deleted in one pass.
+     *
+     * @return The number of deleted rows
      */
-    public void checkRows() {
-        for (int y = 0; y < HEIGHT; y++) {
-            boolean complete = true;
-            for (int x = 0; x < WIDTH; x++) {
-                if (field[x][y] != null) continue;
-                complete = false;
-                break;
-            }
-            if (complete) removeLine(y--);
-        }
+    public int checkRows() {
+        count = board.clearLines();
+        for (int i = 0; i < count; i++) cleared[i] = board.getCleared(i);
+        blocks.removeRows(cleared, count);
+        blocks.flush();
+        return count;
     }
 
     /**
-     * Deletes a row.
-     * 
-     * @param y The row to delete
+     * Returns the number of rows deleted by the last {@link #checkRows()}.
+     *
+     * @return The number of rows
      */
-    private void removeLine(int y) {
-        for (int x = 0; x < WIDTH; x++) detachChild(field[x][y]);
-        for (; y < HEIGHT - 1; y++) {
-            for (int x = 0; x < WIDTH; x++) {
-                field[x][y] = field[x][y + 1];
-                if (field[x][y] != null) field[x][y].move(0, -1, 0);
-            }
+    public int getCleared() {
+        return count;
+    }
+
+    /**
+     * Returns the colors of all rows up to the highest box from bottom to top,
+     * e.g. to save them.
+     *
+     * @return The colors or null for empty cells
+     */
+    public ColorRGBA[] getColors() {
+        int width = board.getWidth();
+        ColorRGBA[] colors = new ColorRGBA[width * board.getTop()];
+        for (int i = 0; i < colors.length; i++)
+            colors[i] = blocks.get(i % width, i / width);
+        return colors;
+    }
+
+    /**
+     * Replaces all boxes of the field, e.g. to resume a saved game.
+     *
+     * @param colors The colors of the lowest rows from bottom to top or null
+     *               for empty cells
+     */
+    public void fill(ColorRGBA[] colors) {
+        int width = board.getWidth();
+        for (int y = 0; y < board.getTop(); y++) {
+            for (int x = 0; x < width; x++) blocks.set(x, y, null);
+        }
+        board.reset();
+        for (int i = 0; i < colors.length; i++) {
+            if (colors[i] == null) continue;
+            board.place(1, i % width, i / width);
+            blocks.set(i % width, i / width, colors[i]);
         }
-        for (int x = 0; x < WIDTH; x++) field[x][y] = null;
+        checkRows();
     }
 
     /**
-     * Creates a border-box with the default material and positions it.
+     * Returns a row deleted by the last {@link #checkRows()}. The rows are
+     * given from bottom to top as they were before the deletion, e.g. to
+     * animate them.
      *
-     * @param x The x-coordinate of the box
-     * @param y The y-coordinate of the box
+     * @param i The index between 0 and the number of deleted rows
+     * @return The row
      */
-    private void createBox(int x, int y) {
-        Quad quad = new Quad(.9f, .9f);
-        Geometry geom = new Geometry(String.format("Field[%d,%d]", x, y), quad);
-        geom.setMaterial(mat);
-        geom.setLocalTranslation(x + .05f, y + 0.05f, 0);
-        attachChild(geom);
+    public int getCleared(int i) {
+        return cleared[i];
+    }
+
+    /**
+     * Creates a single mesh holding all boxes of the border, which is drawn
+     * by one call and never changes.
+     *
+     * @param width  The width of the field
+     * @param height The height of the field
+     * @return The mesh
+     */
+    private static Mesh createBorder(int width, int height) {
+        int boxes = 2 * (height + 1) + width;
+        FloatBuffer positions = BufferUtils.createFloatBuffer(boxes * 4 * 3);
+        FloatBuffer colors = BufferUtils.createFloatBuffer(boxes * 4 * 4);
+        IntBuffer indices = BufferUtils.createIntBuffer(boxes * 6);
+        for (int i = 0; i < boxes; i++) {
+            int x, y;
+            if (i < width) {
+                x = i;
+                y = -1;
+            } else {
+                x = (i - width) % 2 == 0 ? -1 : width;
+                y = (i - width) / 2 - 1;
+            }
+            float left = x + GAP, bottom = y + GAP, size = Palette.SIZE;
+            positions.put(left).put(bottom).put(0);
+            positions.put(left + size).put(bottom).put(0);
+            positions.put(left + size).put(bottom + size).put(0);
+            positions.put(left).put(bottom + size).put(0);
+            ColorRGBA c = ColorRGBA.LightGray;
+            for (int v = 0; v < 4; v++)
+                colors.put(c.r).put(c.g).put(c.b).put(c.a);
+            int v = i * 4;
+            indices.put(v).put(v + 1).put(v + 2).put(v).put(v + 2).put(v + 3);
+        }
+        positions.flip();
+        colors.flip();
+        indices.flip();
+
+        Mesh mesh = new Mesh();
+        mesh.setBuffer(Type.Position, 3, positions);
+        mesh.setBuffer(Type.Color, 4, colors);
+        mesh.setBuffer(Type.Index, 3, indices);
+        mesh.updateBound();
+        mesh.setStatic();
+        return mesh;
     }
 
 }
@@ -0,0 +1,156 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris;
+
+// --------------------------------- Import(s) ---------------------------------
+import com.jme3.app.Application;
+import com.jme3.app.state.AbstractAppState;
+import com.jme3.app.state.AppStateManager;
+import com.jme3.renderer.RenderManager;
+import com.jme3.renderer.ViewPort;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Renders only, when the game has changed. The game counts its changes, and
+ * as long as the count stays the same, the viewports are disabled, so the
+ * frame is neither culled nor drawn and the last image stays on the screen.
+ * The game's scene is not updated either, as long as it is not rendered.
+ * After a change a few frames are rendered, so every back buffer shows it.
+ * <p>
+ * While nothing changes, the frames are also slowed down to an idle rate.
+ * The game is updated on every frame, so the keys are still read and the
+ * tetromino still falls, but the render thread sleeps at most until the next
+ * tick, which keeps the ticks precise.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class FrameGovernor extends AbstractAppState {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The number of frames rendered after every change. */
+    private static final int SETTLE = 3;
+
+    /** The longest time in seconds between two rendered frames. */
+    private static final float REFRESH = 1;
+
+    /** The time in nanoseconds an idle frame lasts at most. */
+    private final long idle;
+
+    /** The game to watch. */
+    private Tetris game;
+
+    /** The viewports to disable, while nothing changes. */
+    private ViewPort[] views;
+
+    /** The number of changes seen so far. */
+    private long changes = -1;
+
+    /** The number of frames left to render after the last change. */
+    private int settle;
+
+    /** The time since the last rendered frame in seconds. */
+    private float since;
+
+    /** Whether the current frame is rendered. */
+    private boolean rendering = true;
+
+    /** Whether it is decided, if the current frame is rendered. */
+    private boolean decided = true;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates the governor.
+     *
+     * @param idleRate The frames per second, while nothing changes
+     * @throws IllegalArgumentException If the rate is not positive
+     */
+    public FrameGovernor(int idleRate) {
+        if (idleRate <= 0)
+            throw new IllegalArgumentException("Rate must be positive!");
+        idle = 1000000000L / idleRate;
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void initialize(AppStateManager stateManager, Application app) {
+        super.initialize(stateManager, app);
+        game = (Tetris) app;
+        views = new ViewPort[] {app.getViewPort(), app.getGuiViewPort()};
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void update(float tpf) {
+        since += tpf;
+        decided = false;
+    }
+
+    /**
+     * Returns, whether the current frame is rendered. Decided on the first
+     * call after the game has been updated, so the changes of this frame are
+     * already counted, and before the scene is updated, so it is only updated
+     * for a frame, that is rendered.
+     *
+     * @return Whether the current frame is rendered
+     */
+    public boolean isRendering() {
+        if (decided) return rendering;
+        decided = true;
+        long c = game.getChanges();
+        if (c != changes || game.getCurrent() == null) {
+            changes = c;
+            settle = SETTLE;
+        }
+        rendering = settle > 0 || since >= REFRESH;
+        if (settle > 0) settle--;
+        return rendering;
+    }
+
+    /**
+     * Disables the viewports, if the frame is not rendered.
+     *
+     * @param rm The render manager
+     */
+    @Override
+    public void render(RenderManager rm) {
+        boolean render = isRendering();
+        for (ViewPort view : views) view.setEnabled(render);
+    }
+
+    /**
+     * Sleeps after a frame, that was not rendered, until the idle frame is
+     * over or the next tick is due.
+     */
+    @Override
+    public void postRender() {
+        if (rendering) {
+            since = 0;
+            return;
+        }
+        game.getMetrics().countSkippedFrame();
+        long tick = (long) (game.getTimeToTick() * 1e9);
+        long wait = Math.min(idle, tick);
+        if (wait > 0) LockSupport.parkNanos(wait);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void cleanup() {
+        super.cleanup();
+        for (ViewPort view : views) view.setEnabled(true);
+    }
+
+}
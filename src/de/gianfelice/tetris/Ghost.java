@@ -0,0 +1,113 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris;
+
+// --------------------------------- Import(s) ---------------------------------
+import com.jme3.asset.AssetManager;
+import com.jme3.math.ColorRGBA;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Geometry;
+import com.jme3.scene.Mesh;
+import com.jme3.scene.Node;
+import de.gianfelice.tetris.engine.Board;
+import de.gianfelice.tetris.tetrominos.Tetromino;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * The ghost shows in a darker color, where the current tetromino would land
+ * when dropped. The row is taken from the column heights of the board, so
+ * showing the ghost costs no collision-checks in most cases.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class Ghost extends Node {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The factor to darken the color of the tetromino with. */
+    private static final float SHADE = .3f;
+
+    /** The board of the game. */
+    private final Board board;
+
+    /** The palette for all boxes. */
+    private final Palette palette;
+
+    /** The darkened box-mesh for each color of a tetromino. */
+    private final Map<ColorRGBA, Mesh> shades;
+
+    /** The four boxes of the ghost. */
+    private final Geometry[] boxes;
+
+    /** The color of the shown tetromino. */
+    private ColorRGBA color;
+
+    /** The mask of the shown tetromino. */
+    private int mask;
+
+    /** The x-coordinate of the shown tetromino. */
+    private int x;
+
+    /** The y-coordinate of the shown tetromino. */
+    private int y;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates the ghost.
+     *
+     * @param assetManager The app's assetmanager
+     * @param field        The field of the game
+     */
+    public Ghost(AssetManager assetManager, Field field) {
+        super("Ghost");
+        board = field.getBoard();
+        palette = Palette.get(assetManager);
+        shades = new IdentityHashMap<>();
+        boxes = new Geometry[4];
+        for (int i = 0; i < boxes.length; i++) {
+            boxes[i] = new Geometry("Ghost#" + i);
+            boxes[i].setMaterial(palette.getMaterial());
+            attachChild(boxes[i]);
+        }
+        setLocalTranslation(0, 0, -.1f);
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Moves the ghost below a tetromino. The scene is only changed, if the
+     * ghost actually moved.
+     *
+     * @param current The current tetromino
+     */
+    public void show(Tetromino current) {
+        Vector3f t = current.getLocalTranslation();
+        int m = current.getMask(), px = (int) t.x, py = (int) t.y;
+        if (current.getColor() != color) {
+            color = current.getColor();
+            Mesh box = shades.get(color);
+            if (box == null) {
+                box = palette.getBox(color.mult(SHADE));
+                shades.put(color, box);
+            }
+            for (Geometry g : boxes) g.setMesh(box);
+        }
+        if (m != mask) {
+            Geometry[] source = current.getBoxes();
+            for (int i = 0; i < boxes.length; i++)
+                boxes[i].setLocalTranslation(source[i].getLocalTranslation());
+            mask = m;
+        }
+        int to = board.dropTo(m, px, py);
+        if (px == x && to == y) return;
+        x = px;
+        y = to;
+        setLocalTranslation(x, y, -.1f);
+    }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris;
+
+// --------------------------------- Import(s) ---------------------------------
+import com.jme3.app.Application;
+import com.jme3.app.state.AbstractAppState;
+import com.jme3.app.state.AppStateManager;
+
+/**
+ * Runs the game without a display for a number of frames and prints its
+ * metrics afterwards, e.g. to catch regressions on a build machine. The game
+ * ends after the given number of frames or when it is over. Only the frames
+ * after loading are counted, so the same input always reaches the same state
+ * after the same number of frames. The scene can be counted once a second as
+ * well, so a scene, that keeps growing, is noticed.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class HeadlessState extends AbstractAppState {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The number of frames from one sample of the scene to the next. */
+    private static final int SAMPLE = 60;
+
+    /** The number of frames to run or 0 to run until the game is over. */
+    private final long limit;
+
+    /** Counts the scene, if not null. */
+    private final SceneStats scene;
+
+    /** The game to run. */
+    private Tetris game;
+
+    /** The number of frames since the game was loaded. */
+    private long frames;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates the state.
+     *
+     * @param limit The number of frames to run or 0 to run until the game is
+     *              over
+     * @param scene Whether to count the scene
+     */
+    public HeadlessState(long limit, boolean scene) {
+        this.limit = limit;
+        this.scene = scene ? new SceneStats() : null;
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void initialize(AppStateManager stateManager, Application app) {
+        super.initialize(stateManager, app);
+        game = (Tetris) app;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void update(float tpf) {
+        if (game.getCurrent() == null) return;
+        frames++;
+        if (scene != null && frames % SAMPLE == 0)
+            scene.sample(game.getRootNode(), game.getGuiNode());
+        if (limit > 0 && frames == limit) game.stop();
+    }
+
+    /**
+     * Prints the metrics of the game and the counts of the scene.
+     */
+    @Override
+    public void cleanup() {
+        super.cleanup();
+        StringBuilder sb = new StringBuilder();
+        sb.append("frames ").append(frames).append('\n');
+        sb.append(game.getMetrics());
+        if (scene != null) {
+            scene.sample(game.getRootNode(), game.getGuiNode());
+            sb.append(scene);
+        }
+        System.out.print(sb);
+    }
+
+}
@@ -0,0 +1,286 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris;
+
+// --------------------------------- Import(s) ---------------------------------
+import com.jme3.app.Application;
+import com.jme3.app.state.AbstractAppState;
+import com.jme3.app.state.AppStateManager;
+import com.jme3.input.InputManager;
+import com.jme3.input.KeyInput;
+import com.jme3.input.RawInputListener;
+import com.jme3.input.controls.ActionListener;
+import com.jme3.input.controls.KeyTrigger;
+import com.jme3.input.event.JoyAxisEvent;
+import com.jme3.input.event.JoyButtonEvent;
+import com.jme3.input.event.KeyInputEvent;
+import com.jme3.input.event.MouseButtonEvent;
+import com.jme3.input.event.MouseMotionEvent;
+import com.jme3.input.event.TouchEvent;
+import de.gianfelice.tetris.engine.Action;
+import de.gianfelice.tetris.metrics.Histogram;
+
+/**
+ * Reads the keys and acts as soon as a key is pressed. Every press is stored
+ * with the time of its event and applied during the next update, so several
+ * presses within one frame are not lost. The time from the event until the
+ * tetromino moved is recorded into the input latency of the metrics, which
+ * includes the time the key waited for the frame. Holding left or right
+ * moves the tetromino again after the delayed auto-shift and then
+ * repeatedly with the auto-repeat rate.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class InputState extends AbstractAppState implements ActionListener,
+        RawInputListener {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** All actions, which are looked up for every key event. */
+    private static final Action[] ACTIONS = Action.values();
+
+    /** The size of the queue, which must be a power of two. */
+    private static final int QUEUE = 64;
+
+    /** The delay before holding a key repeats it in seconds. */
+    private final float das;
+
+    /** The delay between two repeats in seconds. */
+    private final float arr;
+
+    /** The pressed actions waiting to be applied. */
+    private final Action[] actions = new Action[QUEUE];
+
+    /** The times the waiting actions have been pressed at in nanoseconds. */
+    private final long[] stamps = new long[QUEUE];
+
+    /**
+     * The times the actions have last been pressed at by the timer of the
+     * keyboard. All key events of a frame reach the raw listeners before any
+     * mapping, so each action keeps its own time.
+     */
+    private final long[] pressed = new long[ACTIONS.length];
+
+    /** The position of the next action to apply. */
+    private int head;
+
+    /** The position of the next action to store. */
+    private int tail;
+
+    /** Whether the key for left is held. */
+    private boolean left;
+
+    /** Whether the key for right is held. */
+    private boolean right;
+
+    /** The direction being repeated, which is the last pressed one. */
+    private Action held;
+
+    /** The time since the held direction was pressed or last repeated. */
+    private float heldTime;
+
+    /** Whether the held direction already passed the delayed auto-shift. */
+    private boolean shifting;
+
+    /** The time from pressing a key until the tetromino moved. */
+    private Histogram latency;
+
+    /** The game to control. */
+    private Tetris game;
+
+    /** The app's inputmanager. */
+    private InputManager inputManager;
+
+    /** The keyboard, whose timer stamps the key events. */
+    private KeyInput keyInput;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates the input with the usual delays of 167 ms for the delayed
+     * auto-shift and 33 ms for the auto-repeat rate.
+     */
+    public InputState() {
+        this(.167f, .033f);
+    }
+
+    /**
+     * Creates the input.
+     *
+     * @param das The delay before holding a key repeats it in seconds
+     * @param arr The delay between two repeats in seconds
+     */
+    public InputState(float das, float arr) {
+        this.das = das;
+        this.arr = arr;
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void initialize(AppStateManager stateManager, Application app) {
+        super.initialize(stateManager, app);
+        game = (Tetris) app;
+        latency = game.getMetrics().getInput();
+        inputManager = app.getInputManager();
+        keyInput = app.getContext().getKeyInput();
+        inputManager.addRawInputListener(this);
+        for (Action action : ACTIONS) {
+            int key = key(action);
+            if (key != KeyInput.KEY_UNKNOWN)
+                inputManager.addMapping(action.getMapping(),
+                        new KeyTrigger(key));
+        }
+        inputManager.addListener(this, "Rotate", "Left", "Right", "Drop");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void cleanup() {
+        inputManager.removeListener(this);
+        inputManager.removeRawInputListener(this);
+        super.cleanup();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onAction(String name, boolean isPressed, float tpf) {
+        Action action = Action.of(name);
+        if (action == Action.LEFT) left = isPressed;
+        if (action == Action.RIGHT) right = isPressed;
+        if (!isPressed) {
+            if (action == held) hold(left ? Action.LEFT
+                    : right ? Action.RIGHT : null);
+            return;
+        }
+        if (action == Action.LEFT || action == Action.RIGHT) hold(action);
+        if (tail - head == QUEUE) return;
+        actions[tail & (QUEUE - 1)] = action;
+        stamps[tail & (QUEUE - 1)] = pressed[action.ordinal()];
+        tail++;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void update(float tpf) {
+        for (; head != tail; head++) {
+            if (!game.perform(actions[head & (QUEUE - 1)])) continue;
+            latency.record(keyInput.getInputTimeNanos()
+                    - stamps[head & (QUEUE - 1)]);
+        }
+
+        if (held == null) return;
+        heldTime += tpf;
+        if (!shifting) {
+            if (heldTime < das) return;
+            heldTime -= das;
+            shifting = true;
+            if (!game.perform(held)) return;
+        }
+        for (; heldTime >= arr; heldTime -= arr) {
+            if (!game.perform(held)) heldTime = 0;
+        }
+    }
+
+    /**
+     * Remembers the time of pressing a key of an action.
+     *
+     * @param evt The event
+     */
+    @Override
+    public void onKeyEvent(KeyInputEvent evt) {
+        if (!evt.isPressed() || evt.isRepeating()) return;
+        for (Action action : ACTIONS) {
+            if (key(action) == evt.getKeyCode())
+                pressed[action.ordinal()] = evt.getTime();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void beginInput() {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void endInput() {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onJoyAxisEvent(JoyAxisEvent evt) {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onJoyButtonEvent(JoyButtonEvent evt) {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onMouseMotionEvent(MouseMotionEvent evt) {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onMouseButtonEvent(MouseButtonEvent evt) {}
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void onTouchEvent(TouchEvent evt) {}
+
+    /**
+     * Returns the key triggering an action.
+     *
+     * @param action The action
+     * @return The key code or {@link KeyInput#KEY_UNKNOWN}, if no key
+     *         triggers it
+     */
+    private static int key(Action action) {
+        switch (action) {
+            case ROTATE:
+                return KeyInput.KEY_UP;
+            case LEFT:
+                return KeyInput.KEY_LEFT;
+            case RIGHT:
+                return KeyInput.KEY_RIGHT;
+            case DROP:
+                return KeyInput.KEY_DOWN;
+            default:
+                return KeyInput.KEY_UNKNOWN;
+        }
+    }
+
+    /**
+     * Starts repeating a direction.
+     *
+     * @param direction The direction or null to stop repeating
+     */
+    private void hold(Action direction) {
+        held = direction;
+        heldTime = 0;
+        shifting = false;
+    }
+
+}
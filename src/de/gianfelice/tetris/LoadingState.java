@@ -0,0 +1,121 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris;
+
+// --------------------------------- Import(s) ---------------------------------
+import com.jme3.app.Application;
+import com.jme3.app.state.AbstractAppState;
+import com.jme3.app.state.AppStateManager;
+import com.jme3.audio.AudioNode;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Loads the game on background threads, while the render thread keeps
+ * drawing frames. The materials, meshes and tetrominos are built by one
+ * thread and the music is opened by another one. Both only create objects,
+ * which are not attached yet, so nothing of the scene is touched. As soon as
+ * both are done, the game is started on the render thread and the state
+ * removes itself.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class LoadingState extends AbstractAppState {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The logger of the loading. */
+    private static final Logger LOG =
+            Logger.getLogger(LoadingState.class.getName());
+
+    /** The game to load. */
+    private Tetris game;
+
+    /** The threads loading the game. */
+    private ExecutorService loader;
+
+    /** Builds the scene. */
+    private Future<?> scene;
+
+    /** Opens the music. */
+    private Future<AudioNode> music;
+
+    /** The time loading started at in nanoseconds. */
+    private long started;
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void initialize(AppStateManager stateManager, Application app) {
+        super.initialize(stateManager, app);
+        game = (Tetris) app;
+        started = System.nanoTime();
+        loader = Executors.newFixedThreadPool(2, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Loader");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        scene = loader.submit(new Runnable() {
+            @Override
+            public void run() {
+                game.load();
+            }
+        });
+        music = loader.submit(new Callable<AudioNode>() {
+            @Override
+            public AudioNode call() {
+                return game.createMusic();
+            }
+        });
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @throws IllegalStateException If loading failed
+     */
+    @Override
+    public void update(float tpf) {
+        if (!scene.isDone() || !music.isDone()) return;
+        try {
+            scene.get();
+            game.begin(music.get());
+        } catch (InterruptedException | ExecutionException e) {
+            throw new IllegalStateException("Loading failed!", e);
+        }
+
+        long load = (System.nanoTime() - started) / 1000000;
+        long startup = ManagementFactory.getRuntimeMXBean().getUptime();
+        game.getMetrics().setStartup(load, startup);
+        LOG.log(Level.INFO, "Loaded in {0} ms, ready {1} ms after start",
+                new Object[] {load, startup});
+        game.getStateManager().detach(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void cleanup() {
+        super.cleanup();
+        loader.shutdownNow();
+    }
+
+}
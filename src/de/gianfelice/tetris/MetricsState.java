@@ -0,0 +1,67 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris;
+
+// --------------------------------- Import(s) ---------------------------------
+import com.jme3.app.state.AbstractAppState;
+import com.jme3.renderer.RenderManager;
+import com.jme3.renderer.ViewPort;
+import de.gianfelice.tetris.metrics.Histogram;
+
+/**
+ * Measures the rendering of every frame. The state is called right before
+ * the scene is rendered and again after everything has been rendered. Frames,
+ * whose viewport has been disabled by a {@link FrameGovernor}, are not
+ * recorded, since nothing was rendered.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class MetricsState extends AbstractAppState {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The histogram to record into. */
+    private final Histogram render;
+
+    /** The viewport, that is rendered, if the frame is not skipped. */
+    private final ViewPort view;
+
+    /** The time the current frame started rendering at. */
+    private long started;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates the state.
+     *
+     * @param render The histogram to record into
+     * @param view   The main viewport
+     */
+    public MetricsState(Histogram render, ViewPort view) {
+        this.render = render;
+        this.view = view;
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void render(RenderManager rm) {
+        started = view.isEnabled() ? System.nanoTime() : 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void postRender() {
+        if (started != 0) render.record(System.nanoTime() - started);
+        started = 0;
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris;
+
+// --------------------------------- Import(s) ---------------------------------
+import com.jme3.asset.AssetManager;
+import com.jme3.material.Material;
+import com.jme3.math.ColorRGBA;
+import com.jme3.scene.Mesh;
+import com.jme3.scene.VertexBuffer.Type;
+import com.jme3.scene.shape.Quad;
+import com.jme3.util.BufferUtils;
+import java.nio.FloatBuffer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Every box of the game is drawn with the same material, which takes the
+ * color from the vertices. The palette holds this material and one box-mesh
+ * per color, which is shared by all boxes of that color. The box-meshes only
+ * differ by their colors, so they share the positions and indices of one
+ * quad, which are uploaded only once.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public final class Palette {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The size of a box. */
+    public static final float SIZE = .9f;
+
+    /** The palette of each assetmanager. */
+    private static final Map<AssetManager, Palette> PALETTES =
+            new WeakHashMap<>();
+
+    /** The material for all boxes. */
+    private final Material mat;
+
+    /** The quad holding the positions and indices of every box-mesh. */
+    private final Mesh quad;
+
+    /** The box-mesh for each color. */
+    private final Map<ColorRGBA, Mesh> boxes;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates the palette.
+     *
+     * @param assetManager The app's assetmanager
+     */
+    private Palette(AssetManager assetManager) {
+        mat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
+        mat.setBoolean("VertexColor", true);
+        quad = new Quad(SIZE, SIZE);
+        boxes = new HashMap<>();
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Returns the palette of an assetmanager, which is created on the first
+     * call.
+     *
+     * @param assetManager The app's assetmanager
+     * @return The palette
+     */
+    public static synchronized Palette get(AssetManager assetManager) {
+        Palette palette = PALETTES.get(assetManager);
+        if (palette == null) {
+            palette = new Palette(assetManager);
+            PALETTES.put(assetManager, palette);
+        }
+        return palette;
+    }
+
+    /**
+     * Returns the material shared by all boxes.
+     *
+     * @return The material
+     */
+    public Material getMaterial() {
+        return mat;
+    }
+
+    /**
+     * Returns the box-mesh of a color. It must not be changed, since it is
+     * shared.
+     *
+     * @param color The color of the box
+     * @return The box-mesh
+     */
+    public synchronized Mesh getBox(ColorRGBA color) {
+        Mesh box = boxes.get(color);
+        if (box != null) return box;
+
+        box = new Mesh();
+        box.setBuffer(quad.getBuffer(Type.Position));
+        box.setBuffer(quad.getBuffer(Type.Index));
+        FloatBuffer colors = BufferUtils.createFloatBuffer(4 * 4);
+        for (int v = 0; v < 4; v++)
+            colors.put(color.r).put(color.g).put(color.b).put(color.a);
+        colors.flip();
+        box.setBuffer(Type.Color, 4, colors);
+        box.updateBound();
+        box.setStatic();
+        boxes.put(color.clone(), box);
+        return box;
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris;
+
+// --------------------------------- Import(s) ---------------------------------
+import com.jme3.app.Application;
+import com.jme3.app.state.AbstractAppState;
+import com.jme3.app.state.AppStateManager;
+import de.gianfelice.tetris.replay.ReplayReader;
+
+/**
+ * Plays a recorded game in real time. The recorded actions and ticks are
+ * applied when their time has come, so the game neither reads the keys nor
+ * ticks itself.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class ReplayState extends AbstractAppState {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The recorded game. */
+    private final ReplayReader replay;
+
+    /** The game to play. */
+    private Tetris game;
+
+    /** The passed time since the start in seconds. */
+    private double clock;
+
+    /** Whether the current event of the replay is still waiting. */
+    private boolean pending;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates the state.
+     *
+     * @param replay The recorded game
+     */
+    public ReplayState(ReplayReader replay) {
+        this.replay = replay;
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void initialize(AppStateManager stateManager, Application app) {
+        super.initialize(stateManager, app);
+        game = (Tetris) app;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void update(float tpf) {
+        clock += tpf;
+        while (pending || replay.next()) {
+            pending = replay.getTime() > clock * 1000;
+            if (pending) return;
+            if (!replay.isPiece()) game.perform(replay.getAction());
+        }
+    }
+
+}
@@ -0,0 +1,108 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris;
+
+// --------------------------------- Import(s) ---------------------------------
+import com.jme3.scene.Geometry;
+import com.jme3.scene.Mesh;
+import com.jme3.scene.SceneGraphVisitor;
+import com.jme3.scene.Spatial;
+import com.jme3.scene.Spatial.CullHint;
+
+/**
+ * Counts the nodes, geometries, triangles and vertices of a scene. Every
+ * sample walks through the whole scene, so it should not be taken on every
+ * frame. Besides the last sample the highest counts are kept, so a scene,
+ * that grows for a while and shrinks again, is noticed as well.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class SceneStats implements SceneGraphVisitor {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The names of the counts. */
+    private static final String[] NAMES = {
+        "nodes", "geometries", "hidden", "triangles", "vertices"
+    };
+
+    /** Index of the number of nodes. */
+    private static final int NODES = 0;
+
+    /** Index of the number of geometries. */
+    private static final int GEOMETRIES = 1;
+
+    /** Index of the number of spatials culled by their own cull-hint. */
+    private static final int HIDDEN = 2;
+
+    /** Index of the number of triangles. */
+    private static final int TRIANGLES = 3;
+
+    /** Index of the number of vertices. */
+    private static final int VERTICES = 4;
+
+    /** The counts of the last sample. */
+    private final long[] counts = new long[NAMES.length];
+
+    /** The highest counts of all samples. */
+    private final long[] peaks = new long[NAMES.length];
+
+    /** The number of samples taken. */
+    private long samples;
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Counts the spatials of one or more scenes.
+     *
+     * @param roots The roots of the scenes
+     */
+    public void sample(Spatial... roots) {
+        for (int i = 0; i < counts.length; i++) counts[i] = 0;
+        for (Spatial root : roots) root.depthFirstTraversal(this);
+        for (int i = 0; i < counts.length; i++)
+            peaks[i] = Math.max(peaks[i], counts[i]);
+        samples++;
+    }
+
+    /**
+     * Counts one spatial.
+     *
+     * @param spatial The spatial
+     */
+    @Override
+    public void visit(Spatial spatial) {
+        if (spatial instanceof Geometry) {
+            Mesh mesh = ((Geometry) spatial).getMesh();
+            counts[GEOMETRIES]++;
+            counts[TRIANGLES] += mesh.getTriangleCount();
+            counts[VERTICES] += mesh.getVertexCount();
+        } else {
+            counts[NODES]++;
+        }
+        if (spatial.getCullHint() == CullHint.Always) counts[HIDDEN]++;
+    }
+
+    /**
+     * Lists the counts of the last sample and the highest ones as plain text
+     * with one count per line.
+     *
+     * @return The text
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# scene last peak\n");
+        sb.append("scene.samples ").append(samples).append('\n');
+        for (int i = 0; i < NAMES.length; i++) {
+            sb.append("scene.").append(NAMES[i]).append(' ');
+            sb.append(counts[i]).append(' ').append(peaks[i]).append('\n');
+        }
+        return sb.toString();
+    }
+
+}
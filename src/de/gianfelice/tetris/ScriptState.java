@@ -0,0 +1,116 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris;
+
+// --------------------------------- Import(s) ---------------------------------
+import com.jme3.app.Application;
+import com.jme3.app.state.AbstractAppState;
+import com.jme3.app.state.AppStateManager;
+import de.gianfelice.tetris.engine.Action;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Plays a script of actions instead of reading the keys, e.g. to test the
+ * game without a display. Every line of the script holds the time in
+ * seconds since the start and the key-mapping of an {@link Action}, like
+ * {@code 1.5 Left}. Empty lines and lines starting with {@code #} are
+ * ignored, and the times must not decrease.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class ScriptState extends AbstractAppState {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The times of the actions in seconds. */
+    private final double[] times;
+
+    /** The actions in the order of their times. */
+    private final Action[] actions;
+
+    /** The game to play. */
+    private Tetris game;
+
+    /** The passed time since the start in seconds. */
+    private double clock;
+
+    /** The next action to apply. */
+    private int next;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates the state.
+     *
+     * @param times   The times of the actions in seconds in ascending order
+     * @param actions The actions
+     */
+    public ScriptState(double[] times, Action[] actions) {
+        this.times = times;
+        this.actions = actions;
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Reads a script.
+     *
+     * @param file The file holding the script
+     * @return The state playing the script
+     * @throws IOException If the file could not be read or is malformed
+     */
+    public static ScriptState open(Path file) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        double[] times = new double[lines.size()];
+        Action[] actions = new Action[lines.size()];
+        int n = 0;
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i).trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+            String[] parts = line.split("\\s+");
+            try {
+                times[n] = Double.parseDouble(parts[0]);
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed time in line " + (i + 1), e);
+            }
+            actions[n] = parts.length == 2 ? Action.of(parts[1]) : null;
+            if (actions[n] == null)
+                throw new IOException("Unknown action in line " + (i + 1));
+            if (n > 0 && times[n] < times[n - 1])
+                throw new IOException("Decreasing time in line " + (i + 1));
+            n++;
+        }
+        double[] t = new double[n];
+        Action[] a = new Action[n];
+        System.arraycopy(times, 0, t, 0, n);
+        System.arraycopy(actions, 0, a, 0, n);
+        return new ScriptState(t, a);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void initialize(AppStateManager stateManager, Application app) {
+        super.initialize(stateManager, app);
+        game = (Tetris) app;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void update(float tpf) {
+        clock += tpf;
+        while (next < actions.length && times[next] <= clock)
+            game.perform(actions[next++]);
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris;
+
+// --------------------------------- Import(s) ---------------------------------
+import com.jme3.system.Timer;
+
+/**
+ * A timer, whose frames always last the same time, no matter how long they
+ * really took. Without a display the frames are not synchronized, so the
+ * game runs as fast as possible and every run with the same input reaches
+ * the same state after the same number of frames.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class StepTimer extends Timer {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The number of ticks per second. */
+    private static final long RESOLUTION = 1000000000L;
+
+    /** The frames per second. */
+    private final int rate;
+
+    /** The time since the last reset in ticks. */
+    private long time;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates the timer.
+     *
+     * @param rate The frames per second
+     * @throws IllegalArgumentException If the rate is not positive
+     */
+    public StepTimer(int rate) {
+        if (rate <= 0)
+            throw new IllegalArgumentException("Rate must be positive!");
+        this.rate = rate;
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getResolution() {
+        return RESOLUTION;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public float getFrameRate() {
+        return rate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public float getTimePerFrame() {
+        return 1f / rate;
+    }
+
+    /**
+     * Moves on by one frame.
+     */
+    @Override
+    public void update() {
+        time += RESOLUTION / rate;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset() {
+        time = 0;
+    }
+
+}
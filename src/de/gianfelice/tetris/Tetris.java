@@ -9,19 +9,46 @@ package de.gianfelice.tetris;
 
 // --------------------------------- Import(s) ---------------------------------
 import com.jme3.app.SimpleApplication;
+import com.jme3.asset.AssetManager;
+import com.jme3.asset.AssetNotFoundException;
+import com.jme3.audio.AudioData.DataType;
 import com.jme3.audio.AudioNode;
-import com.jme3.input.KeyInput;
-import com.jme3.input.controls.ActionListener;
-import com.jme3.input.controls.KeyTrigger;
+import com.jme3.math.Vector3f;
 import com.jme3.scene.Node;
-import de.gianfelice.tetris.tetrominos.I;
-import de.gianfelice.tetris.tetrominos.J;
-import de.gianfelice.tetris.tetrominos.L;
-import de.gianfelice.tetris.tetrominos.O;
-import de.gianfelice.tetris.tetrominos.S;
-import de.gianfelice.tetris.tetrominos.T;
+import com.jme3.scene.Spatial.CullHint;
+import com.jme3.system.AppSettings;
+import com.jme3.system.JmeContext;
+import de.gianfelice.tetris.ai.EvaluationCache;
+import de.gianfelice.tetris.ai.Heuristic;
+import de.gianfelice.tetris.ai.Planner;
+import de.gianfelice.tetris.engine.Action;
+import de.gianfelice.tetris.engine.BagGenerator;
+import de.gianfelice.tetris.engine.Board;
+import de.gianfelice.tetris.engine.Generator;
+import de.gianfelice.tetris.engine.RandomGenerator;
+import de.gianfelice.tetris.engine.Resumable;
+import de.gianfelice.tetris.engine.Shape;
+import de.gianfelice.tetris.engine.SplitRandom;
+import de.gianfelice.tetris.metrics.Metrics;
+import de.gianfelice.tetris.metrics.MetricsServer;
+import de.gianfelice.tetris.replay.ReplayReader;
+import de.gianfelice.tetris.replay.ReplayWriter;
+import de.gianfelice.tetris.save.Snapshot;
+import de.gianfelice.tetris.save.SnapshotWriter;
+import de.gianfelice.tetris.stream.Broadcast;
+import de.gianfelice.tetris.stream.DeltaWriter;
+import de.gianfelice.tetris.stream.SpectatorServer;
 import de.gianfelice.tetris.tetrominos.Tetromino;
-import de.gianfelice.tetris.tetrominos.Z;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ForkJoinPool;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
 
 /**
  * A simple Tetris-game to play with the jMonkeyEngine 3.
@@ -29,17 +56,59 @@ import de.gianfelice.tetris.tetrominos.Z;
  * @author Matthias Gianfelice
  * @version 1.0.0.0
  */
-public class Tetris extends SimpleApplication implements ActionListener {
+public class Tetris extends SimpleApplication {
 
     // ------------------------------ Attribute(s) -----------------------------
-    /** Next tetromino to apply. */
-    private Tetromino next;
+    /** The time in seconds a tetromino needs to fall by one row. */
+    public static final float TICK = .5f;
+
+    /** The most spawns from one keyframe to the next. */
+    private static final int KEYFRAME = 8;
+
+    /** The music, which is streamed while playing. */
+    private static final String MUSIC = "Sounds/music.ogg";
+
+    /** The uncompressed music, if the compressed one is missing. */
+    private static final String MUSIC_FALLBACK = "Sounds/music.wav";
+
+    /** The maximal number of tetrominos shown in advance. */
+    private static final int MAX_PREVIEWS = 5;
+
+    /** The time in seconds from one automatic snapshot to the next. */
+    private static final double AUTOSAVE = 10;
+
+    /** The frames per second while idle, if no other rate is given. */
+    private static final int IDLE_RATE = 10;
+
+    /** The frames per second of the game time without a display. */
+    private static final int HEADLESS_RATE = 60;
+
+    /** The number of ratings cached by the bot. */
+    private static final int BOT_CACHE = 1 << 16;
+
+    /** The logger of the game. */
+    private static final Logger LOG = Logger.getLogger(Tetris.class.getName());
+
+    /** The tetrominos to apply next, which are shown beside the field. */
+    private Tetromino[] preview;
+
+    /** The number of tetrominos shown in advance. */
+    private int previews = 1;
+
+    /** Whether the tetrominos are dealt from a bag instead of at random. */
+    private boolean bag;
+
+    /** The width of the field. */
+    private int width = Field.WIDTH;
+
+    /** The height of the field. */
+    private int height = Field.HEIGHT;
 
     /** Current falling tetromino. */
     private Tetromino current;
 
-    /** Node to display the next tetromino. */
-    private Node nextNode;
+    /** The ghost showing where the current tetromino lands. */
+    private Ghost ghost;
 
     /** The passed time since the last reset. */
     private float time;
@@ -47,18 +116,223 @@ public class Tetris extends SimpleApplication implements ActionListener {
     /** The game's field. */
     private Field field;
 
-    /** Id for naming. */
-    private long id = 0;
+    /** The pool recycling the tetrominos. */
+    private TetrominoPool pool;
+
+    /** The number of tetrominos spawned so far. */
+    private long spawned = 0;
+
+    /** The seed of the tetrominos. */
+    private long seed = System.nanoTime();
+
+    /** The source of the tetrominos. */
+    private Generator generator;
+
+    /** The passed time since the start in seconds. */
+    private double clock;
+
+    /** Records the game, if not null. */
+    private ReplayWriter recorder;
+
+    /** The recorded game to play instead of the keys, if not null. */
+    private ReplayReader replay;
+
+    /** The measurements of the game. */
+    private final Metrics metrics = new Metrics();
+
+    /** The port to serve the metrics on or -1 to serve them by JMX only. */
+    private int metricsPort = -1;
+
+    /** Serves the metrics as text, if not null. */
+    private MetricsServer metricsServer;
+
+    /** The port to serve the spectators on or -1 to serve none. */
+    private int spectatePort = -1;
+
+    /** Writes the game for the spectators, if not null. */
+    private DeltaWriter stream;
+
+    /** Serves the spectators, if not null. */
+    private SpectatorServer spectators;
+
+    /** Saves the game in the background, if not null. */
+    private SnapshotWriter saver;
+
+    /** The saved game to resume or null to start a new one. */
+    private Snapshot resume;
+
+    /** The time of the last snapshot in seconds. */
+    private double saved;
+
+    /** The number of changes, that have to be shown. */
+    private long changes;
+
+    /** The frames per second while idle or 0 to render every frame. */
+    private int idleRate;
+
+    /** Renders only on change, if not null. */
+    private FrameGovernor governor;
+
+    /** The script to play instead of the keys, if not null. */
+    private ScriptState script;
 
     // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates the application.
+     */
+    public Tetris() {
+        rootNode = new Scene("Root Node");
+        guiNode = new Scene("Gui Node");
+    }
+
+    /**
+     * Creates the application around an existing field without starting it,
+     * but with the first tetromino spawned. Used by the benchmarks to reach
+     * the internals.
+     *
+     * @param assetManager The assetmanager to use
+     * @param field        The game's field
+     */
+    Tetris(AssetManager assetManager, Field field) {
+        this(assetManager, field, null);
+    }
+
+    /**
+     * Creates the application around an existing field without starting it,
+     * but with the first tetromino spawned, and records the game. Used by the
+     * checks to compare a game with its replay.
+     *
+     * @param assetManager The assetmanager to use
+     * @param field        The game's field
+     * @param recorder     Records the game or null
+     */
+    Tetris(AssetManager assetManager, Field field, ReplayWriter recorder) {
+        this.assetManager = assetManager;
+        this.field = field;
+        this.recorder = recorder;
+        generator = createGenerator();
+        prepare();
+        enter();
+    }
+
     // ------------------------------- Method(s) -------------------------------
     /**
-     * Starts the application.
+     * Starts the application. With {@code --bot} or {@code --bot=<depth>} the
+     * game is played by a {@link Bot}, that places the given number of
+     * tetrominos for each rating. {@code --record=<file>} records the game
+     * and {@code --replay=<file>} plays a recorded game. The metrics are
+     * always registered by JMX, {@code --metrics=<port>} also serves them as
+     * text on {@code http://localhost:<port>/metrics}.
+     * {@code --spectate=<port>} lets spectators watch the game.
+     * {@code --seed=<seed>} repeats the tetrominos of an earlier game,
+     * {@code --bag} deals them from a shuffled bag of all seven shapes and
+     * {@code --preview=<n>} shows up to five of them in advance.
+     * {@code --size=<width>x<height>} changes the size of the field.
+     * {@code --save=<file>} saves the game every few seconds and on quitting
+     * and resumes it from there on the next start, until it is over.
+     * {@code --fps=<n>} limits the frames per second and {@code --idle} or
+     * {@code --idle=<n>} renders only, when the game has changed, and slows
+     * down to the given frames per second while nothing changes.
+     * {@code --headless} runs the game without a display and prints its
+     * metrics at the end, where every frame lasts a sixtieth of a second of
+     * game time and the frames are not limited unless {@code --fps} is given.
+     * {@code --frames=<n>} ends it after the given number of frames and
+     * {@code --scene-stats} also counts the scene. {@code --script=<file>}
+     * plays a {@link ScriptState script} instead of reading the keys.
      *
      * @param args Arguments given by the command-line
+     * @throws IOException If a replay, a snapshot or a script could not be
+     *                     opened
      */
-    public static void main(String[] args) {
-        new Tetris().start();
+    public static void main(String[] args) throws IOException {
+        Tetris app = new Tetris();
+        String record = null;
+        Path save = null;
+        int fps = 0;
+        boolean headless = false, scene = false;
+        long frames = 0;
+        for (String arg : args) {
+            if (arg.startsWith("--record=")) {
+                record = arg.substring(9);
+            } else if (arg.startsWith("--replay=")) {
+                app.replay = ReplayReader.open(Paths.get(arg.substring(9)));
+                app.seed = app.replay.getSeed();
+            } else if (arg.startsWith("--bot")) {
+                int depth = arg.startsWith("--bot=")
+                        ? Integer.parseInt(arg.substring(6)) : 2;
+                app.getStateManager().attach(new Bot(new Planner(
+                        new ForkJoinPool(), Heuristic.DEFAULT, depth,
+                        new EvaluationCache(BOT_CACHE))));
+            } else if (arg.startsWith("--metrics=")) {
+                app.metricsPort = Integer.parseInt(arg.substring(10));
+            } else if (arg.startsWith("--spectate=")) {
+                app.spectatePort = Integer.parseInt(arg.substring(11));
+            } else if (arg.startsWith("--seed=")) {
+                app.seed = Long.parseLong(arg.substring(7));
+            } else if (arg.equals("--bag")) {
+                app.bag = true;
+            } else if (arg.startsWith("--preview=")) {
+                int n = Integer.parseInt(arg.substring(10));
+                app.previews = Math.max(1, Math.min(MAX_PREVIEWS, n));
+            } else if (arg.startsWith("--size=")) {
+                int[] size = Board.parseSize(arg.substring(7));
+                app.width = size[0];
+                app.height = size[1];
+            } else if (arg.startsWith("--save=")) {
+                save = Paths.get(arg.substring(7));
+            } else if (arg.startsWith("--fps=")) {
+                fps = Integer.parseInt(arg.substring(6));
+            } else if (arg.startsWith("--idle")) {
+                app.idleRate = arg.startsWith("--idle=")
+                        ? Integer.parseInt(arg.substring(7)) : IDLE_RATE;
+            } else if (arg.equals("--headless")) {
+                headless = true;
+            } else if (arg.startsWith("--frames=")) {
+                frames = Long.parseLong(arg.substring(9));
+            } else if (arg.equals("--scene-stats")) {
+                scene = true;
+            } else if (arg.startsWith("--script=")) {
+                app.script = ScriptState.open(Paths.get(arg.substring(9)));
+            }
+        }
+        if (app.replay != null) {
+            app.width = app.replay.getWidth();
+            app.height = app.replay.getHeight();
+        } else if (save != null) {
+            if (Files.exists(save)) {
+                try {
+                    app.resume(Snapshot.open(save));
+                } catch (IOException e) {
+                    LOG.log(Level.WARNING, "Could not resume " + save
+                            + ", starting a new game", e);
+                }
+            }
+            app.saver = new SnapshotWriter(save);
+        }
+        if (record != null && app.resume != null) {
+            LOG.warning("A resumed game is not recorded");
+        } else if (record != null) {
+            app.recorder = new ReplayWriter(new FileOutputStream(record),
+                    app.width, app.height, app.seed);
+        }
+
+        if (headless) {
+            AppSettings settings = new AppSettings(true);
+            settings.setFrameRate(fps > 0 ? fps : Integer.MAX_VALUE);
+            settings.setAudioRenderer(null);
+            app.setSettings(settings);
+            app.setShowSettings(false);
+            app.setTimer(new StepTimer(HEADLESS_RATE));
+            app.getStateManager().attach(new HeadlessState(frames, scene));
+            app.start(JmeContext.Type.Headless);
+        } else {
+            if (fps > 0) {
+                AppSettings settings = new AppSettings(true);
+                settings.setFrameRate(fps);
+                app.setSettings(settings);
+            }
+            app.start();
+        }
     }
 
     /**
@@ -67,34 +341,208 @@ public class Tetris extends SimpleApplication implements ActionListener {
     @Override
     public void simpleInitApp() {
 
-        // Prepare field
-        field = new Field(assetManager);
-        rootNode.attachChild(field);
-
-        // Node to display next tetromino
-        nextNode = new Node("Next");
-        nextNode.setLocalTranslation(12, 15, 0);
-        rootNode.attachChild(nextNode);
-        next = createTetromino();
-        applyNext();
+        // Prepare tetrominos
+        if (replay != null) generator = replay.pieces();
+        else if (resume == null) generator = createGenerator();
+        if (spectatePort >= 0) {
+            Broadcast broadcast = new Broadcast(
+                    DeltaWriter.capacity(width, height));
+            try {
+                spectators = new SpectatorServer(broadcast, spectatePort);
+                stream = new DeltaWriter(broadcast);
+                LOG.log(Level.INFO, "Serving spectators on port {0}",
+                        spectators.getPort());
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Could not serve the spectators", e);
+            }
+        }
 
         // Position camera
         flyCam.setEnabled(false);
-        cam.getLocation().set(6, 9, 30);
-        cam.update();
-
-        // Prepare keys
-        inputManager.addMapping("Rotate", new KeyTrigger(KeyInput.KEY_UP));
-        inputManager.addMapping("Left", new KeyTrigger(KeyInput.KEY_LEFT));
-        inputManager.addMapping("Right", new KeyTrigger(KeyInput.KEY_RIGHT));
-        inputManager.addMapping("Drop", new KeyTrigger(KeyInput.KEY_DOWN));
-        inputManager.addListener(this, "Rotate", "Left", "Right", "Drop");
-        
-        // Prepare Music
-        AudioNode music = new AudioNode(assetManager, "Sounds/music.wav");
-        music.setLooping(true);
-        music.play();
+        positionCamera();
 
+        // Prepare metrics, which need to know whether a frame is rendered
+        if (idleRate > 0) {
+            governor = new FrameGovernor(idleRate);
+            stateManager.attach(governor);
+        }
+        stateManager.attach(new MetricsState(metrics.getRender(), viewPort));
+        try {
+            metrics.register();
+        } catch (JMException e) {
+            LOG.log(Level.WARNING, "Could not register the metrics", e);
+        }
+        if (metricsPort >= 0) {
+            try {
+                metricsServer = new MetricsServer(metrics, metricsPort);
+                LOG.log(Level.INFO, "Serving metrics on port {0}",
+                        metricsServer.getPort());
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Could not serve the metrics", e);
+            }
+        }
+
+        // Load everything else without blocking the first frame
+        stateManager.attach(new LoadingState());
+
+    }
+
+    /**
+     * Creates the field and everything around it, but does not touch the
+     * scene. Called by the {@link LoadingState} on a background thread.
+     */
+    void load() {
+        field = new Field(assetManager, width, height);
+        if (resume != null) field.fill(resume.getCells());
+        prepare();
+    }
+
+    /**
+     * Shows the loaded game, spawns the first tetromino and starts reading the
+     * keys or the replay. Called by the {@link LoadingState} on the render
+     * thread.
+     *
+     * @param music The music to play or null, if there is no sound
+     */
+    void begin(AudioNode music) {
+        rootNode.attachChild(field);
+        if (resume != null) reenter();
+        else enter();
+        if (replay != null) stateManager.attach(new ReplayState(replay));
+        else if (script != null) stateManager.attach(script);
+        else stateManager.attach(new InputState());
+        if (music != null) {
+            music.setLooping(true);
+            music.play();
+        }
+    }
+
+    /**
+     * Creates the music in streaming mode, so that only a few buffers are
+     * held in memory and decoded by the audio thread while playing. The
+     * compressed version is preferred, the uncompressed one is only used, if
+     * there is none. Sound effects are short and are still loaded as a whole.
+     * Called by the {@link LoadingState} on a background thread.
+     *
+     * @return The music or null, if there is no sound, e.g. without a display
+     */
+    AudioNode createMusic() {
+        if (audioRenderer == null) return null;
+        try {
+            return new AudioNode(assetManager, MUSIC, DataType.Stream);
+        } catch (AssetNotFoundException e) {
+            LOG.log(Level.INFO, "No {0}, streaming {1} instead",
+                    new Object[] {MUSIC, MUSIC_FALLBACK});
+            return new AudioNode(assetManager, MUSIC_FALLBACK,
+                    DataType.Stream);
+        }
+    }
+
+    /**
+     * Creates everything around the field including a few tetrominos of each
+     * shape, but does not touch the scene.
+     */
+    private void prepare() {
+        pool = new TetrominoPool(assetManager, field);
+        pool.preload(2);
+        ghost = new Ghost(assetManager, field);
+    }
+
+    /**
+     * Moves the camera in front of the field, so that the field and the
+     * preview beside it fit onto the screen.
+     */
+    private void positionCamera() {
+        float aspect = (float) cam.getWidth() / cam.getHeight();
+        float distance = 1.5f * Math.max(height + 1, (width + 8) / aspect);
+        cam.setFrustumPerspective(45, aspect, 1, 2 * distance);
+        cam.setLocation(new Vector3f(width / 2f + 1, (height - 1) / 2f,
+                distance));
+    }
+
+    /**
+     * Creates the source of the tetrominos from the seed.
+     *
+     * @return The generator
+     */
+    private Generator createGenerator() {
+        SplitRandom random = new SplitRandom(seed);
+        return bag ? new BagGenerator(random) : new RandomGenerator(random);
+    }
+
+    /**
+     * Takes the size of the field and the generator from a saved game, which
+     * is resumed as soon as it is loaded. Nothing is taken, if the generator
+     * cannot be restored.
+     *
+     * @param snapshot The saved game
+     * @throws IOException If the state of the generator is invalid
+     */
+    private void resume(Snapshot snapshot) throws IOException {
+        SplitRandom random = new SplitRandom(seed);
+        Generator restored = snapshot.isBag() ? new BagGenerator(random)
+                : new RandomGenerator(random);
+        byte[] state = snapshot.getGenerator();
+        if (state != null) {
+            Resumable r = (Resumable) restored;
+            if (state.length != r.getStateSize())
+                throw new IOException("Invalid generator in the snapshot!");
+            try {
+                r.restore(ByteBuffer.wrap(state));
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid generator in the snapshot!", e);
+            }
+        }
+        resume = snapshot;
+        generator = restored;
+        width = snapshot.getWidth();
+        height = snapshot.getHeight();
+        bag = snapshot.isBag();
+        previews = Math.max(1, Math.min(MAX_PREVIEWS,
+                snapshot.getPreview().length));
+    }
+
+    /**
+     * Attaches the ghost and puts the current tetromino and the preview of
+     * the saved game back. The field has already been filled while loading.
+     */
+    private void reenter() {
+        rootNode.attachChild(ghost);
+        Shape[] shapes = resume.getPreview();
+        preview = new Tetromino[previews];
+        for (int i = 0; i < preview.length; i++) {
+            preview[i] = pool.acquire(i < shapes.length ? shapes[i]
+                    : generator.next());
+        }
+        current = pool.acquire(resume.getCurrent());
+        int states = resume.getCurrent().getStates();
+        for (int i = 0; i < states; i++) {
+            if (current.getState() == resume.getState()) break;
+            current.rotate();
+        }
+        current.setLocalTranslation(resume.getX(), resume.getY(), 0);
+        show(current);
+        showPreview();
+        time = resume.getTime();
+        clock = saved = resume.getClock();
+        spawned = resume.getSpawned();
+        changes++;
+        if (stream != null) {
+            stream.keyframe(field.getBoard(), current.getShape(),
+                    current.getState(), current.getX(), current.getY());
+        }
+        resume = null;
+    }
+
+    /**
+     * Attaches the ghost, fills the preview and spawns the first tetromino.
+     */
+    private void enter() {
+        rootNode.attachChild(ghost);
+        preview = new Tetromino[previews];
+        for (int i = 0; i < preview.length; i++)
+            preview[i] = createTetromino();
+        applyNext();
     }
 
     /**
@@ -103,93 +551,400 @@ public class Tetris extends SimpleApplication implements ActionListener {
     @Override
     public void simpleUpdate(float tpf) {
         
-        // Read time and react, if one turn is over
-        time += tpf;
-        if (time < .5f) return;
+        // Nothing to do, while the game is loading
+        if (current == null) return;
+
+        // Read time and react, if one turn is over. A replay ticks itself.
+        long start = System.nanoTime();
+        clock += tpf;
+        if (replay == null) time += tpf;
+
+        // Keep the rest of the time, so the ticks do not depend on the frames
+        if (time >= TICK && perform(Action.TICK)) time -= TICK;
+
+        // Show where the tetromino would land
+        ghost.show(current);
+        metrics.getUpdate().record(System.nanoTime() - start);
+
+        // Save the game from time to time in case of a crash
+        if (saver != null && clock - saved >= AUTOSAVE) {
+            saver.save(snapshot());
+            saved = clock;
+        }
+
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reshape(int w, int h) {
+        super.reshape(w, h);
+        changes++;
+    }
 
-        // Check, if current tetromino reached the bottom
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void destroy() {
+        if (metricsServer != null) metricsServer.stop();
+        if (spectators != null) spectators.stop();
+        if (saver != null) {
+            if (current != null && !field.getBoard().isGameOver())
+                saver.save(snapshot());
+            saver.close();
+        }
+        try {
+            metrics.unregister();
+        } catch (JMException e) {
+            LOG.log(Level.FINE, "Could not unregister the metrics", e);
+        }
+        if (recorder != null) {
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                LOG.log(Level.WARNING, "Could not close the recording", e);
+            }
+        }
+        super.destroy();
+    }
+
+    /**
+     * Lets the current tetromino fall by one row. If it reached the bottom,
+     * it is saved inside the field and the next one is applied.
+     *
+     * @return Whether the tetromino fell
+     */
+    private boolean tick() {
         if (!current.validTranslate(0, -1)) {
-            rootNode.detachChild(current);
+            if (stream != null) {
+                stream.lock(current.getMask(), current.getX(),
+                        current.getY());
+            }
+            long start = System.nanoTime();
             field.save(current);
-            field.checkRows();
+            long saved = System.nanoTime();
+            metrics.getSave().record(saved - start);
+            int lines = field.checkRows();
+            metrics.countLines(lines);
+            if (stream != null) stream.clear(field.getBoard(), lines);
+            metrics.getCheckRows().record(System.nanoTime() - saved);
+            pool.release(current);
             applyNext();
-            return;
-        } else current.move(0, -1, 0);
-        
-        // Reset timer
-        time = 0;
-
+            if (recorder != null) {
+                try {
+                    recorder.flush();
+                } catch (IOException e) {
+                    stopRecording(e);
+                }
+            }
+            return false;
+        }
+        current.move(0, -1, 0);
+        return true;
     }
 
     /**
      * Connects the current falling tetromino with the field and moves the next
-     * into falling mode. Also chooses the next tetromino.
+     * into falling mode. Also chooses a new tetromino for the end of the
+     * preview and displays the preview beside the field.
      */
     private void applyNext() {
-        current = next;
-        nextNode.detachAllChildren();
-        current.setLocalTranslation(3, 15, 0);
-        if (!current.validTranslate(0, 0)) {
-            stop();
+        changes++;
+        current = preview[0];
+        current.setLocalTranslation(field.getSpawnX(), field.getSpawnY(), 0);
+        if (!field.spawn(current)) {
+            current.setCullHint(CullHint.Always);
+            if (saver != null) saver.discard();
+            if (context != null) stop();
             return;
         }
-        rootNode.attachChild(current);
-        next = createTetromino();
-        nextNode.attachChild(next);
+        show(current);
+        metrics.countPiece();
+        if (stream != null) spectate();
+        spawned++;
+        int last = preview.length - 1;
+        System.arraycopy(preview, 1, preview, 0, last);
+        preview[last] = createTetromino();
+        showPreview();
     }
 
     /**
-     * Internally used to create a random new tetromino.
-     * 
-     * @return The newly created tetromino
-     */
-    private Tetromino createTetromino() {
-        switch ((int) (Math.random() * 7)) {
-            case 0:
-                return new I(getName(), assetManager, field);
-            case 1:
-                return new J(getName(), assetManager, field);
-            case 2:
-                return new L(getName(), assetManager, field);
-            case 3:
-                return new O(getName(), assetManager, field);
-            case 4:
-                return new S(getName(), assetManager, field);
-            case 5:
-                return new T(getName(), assetManager, field);
-            default:
-                return new Z(getName(), assetManager, field);
+     * Displays the preview beside the field.
+     */
+    private void showPreview() {
+        for (int i = 0; i < preview.length; i++) {
+            preview[i].setLocalTranslation(field.getBoard().getWidth() + 2,
+                    field.getSpawnY() - 3 * i, 0);
+            show(preview[i]);
+        }
+    }
+
+    /**
+     * Takes a snapshot of the game. Only the state is copied here, it is
+     * encoded and written by the {@link SnapshotWriter} in the background.
+     *
+     * @return The snapshot
+     */
+    private Snapshot snapshot() {
+        Snapshot snapshot = new Snapshot(width, height);
+        snapshot.setCells(field.getColors());
+        snapshot.setCurrent(current.getShape(), current.getState(),
+                current.getX(), current.getY());
+        Shape[] shapes = new Shape[preview.length];
+        for (int i = 0; i < shapes.length; i++)
+            shapes[i] = preview[i].getShape();
+        snapshot.setPreview(shapes);
+        if (generator instanceof Resumable) {
+            Resumable r = (Resumable) generator;
+            ByteBuffer state = ByteBuffer.allocate(r.getStateSize());
+            r.save(state);
+            snapshot.setGenerator(bag, state.array());
+        } else {
+            snapshot.setGenerator(bag, null);
+        }
+        snapshot.setTimes(time, clock, spawned);
+        return snapshot;
+    }
+
+    /**
+     * Tells the spectators about the new tetromino. Every few spawns or when
+     * the stream is due a keyframe, the whole board is sent instead, so that
+     * new spectators can join there.
+     */
+    private void spectate() {
+        if (spawned % KEYFRAME == 0 || stream.isKeyframeDue()) {
+            stream.keyframe(field.getBoard(), current.getShape(),
+                    current.getState(), current.getX(), current.getY());
+        } else {
+            stream.spawn(current.getShape(), current.getX(), current.getY());
         }
     }
-    
+
+    /**
+     * Displays a tetromino. It is attached only once and stays attached,
+     * when it is recycled, so the scene does not change for every spawn.
+     *
+     * @param tetromino The tetromino to display
+     */
+    private void show(Tetromino tetromino) {
+        if (tetromino.getParent() == null) rootNode.attachChild(tetromino);
+        tetromino.setCullHint(CullHint.Inherit);
+    }
+
+    /**
+     * Returns the game's field.
+     *
+     * @return The field
+     */
+    public Field getField() {
+        return field;
+    }
+
+    /**
+     * Returns the measurements of the game.
+     *
+     * @return The metrics
+     */
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Returns the current falling tetromino.
+     *
+     * @return The current tetromino
+     */
+    public Tetromino getCurrent() {
+        return current;
+    }
+
+    /**
+     * Returns the next tetromino to apply.
+     *
+     * @return The next tetromino
+     */
+    public Tetromino getNext() {
+        return preview[0];
+    }
+
     /**
-     * Generates the name for a new tetromino.
+     * Returns a tetromino of the preview.
+     *
+     * @param i The position in the preview, where 0 is the next one
+     * @return The tetromino
+     */
+    public Tetromino getPreview(int i) {
+        return preview[i];
+    }
+
+    /**
+     * Returns the number of tetrominos shown in advance.
+     *
+     * @return The size of the preview
+     */
+    public int getPreviewSize() {
+        return preview.length;
+    }
+
+    /**
+     * Returns the number of changes of the game, that have to be shown. The
+     * number grows, whenever a tetromino moves or spawns.
+     *
+     * @return The number of changes
+     */
+    public long getChanges() {
+        return changes;
+    }
+
+    /**
+     * Returns the time until the current tetromino falls by itself.
+     *
+     * @return The time in seconds or {@link #TICK}, if a replay ticks itself
+     */
+    public float getTimeToTick() {
+        return replay == null ? TICK - time : TICK;
+    }
+
+    /**
+     * Returns the number of tetrominos spawned so far, which changes whenever
+     * a new tetromino starts falling.
+     *
+     * @return The number of tetrominos
+     */
+    public long getSpawned() {
+        return spawned;
+    }
+
+    /**
+     * Internally used to get the next tetromino of the generator from the
+     * pool.
      * 
-     * @return A unique name for a new tetromino
+     * @return The tetromino
      */
-    private String getName() {
-        return "Tetromino#" + id++;
+    Tetromino createTetromino() {
+        Shape shape = generator.next();
+        if (recorder != null) {
+            try {
+                recorder.piece(shape, (long) (clock * 1000));
+            } catch (IOException e) {
+                stopRecording(e);
+            }
+        }
+        return pool.acquire(shape);
     }
 
     /**
-     * {@inheritDoc}
+     * Records an action, if the game is recorded.
+     *
+     * @param action The action
      */
-    @Override
-    public void onAction(String name, boolean isPressed, float tpf) {
-        if (isPressed) return;
-        switch (name) {
-            case "Drop":
+    private void record(Action action) {
+        if (recorder == null || action == null) return;
+        try {
+            recorder.action(action, (long) (clock * 1000));
+        } catch (IOException e) {
+            stopRecording(e);
+        }
+    }
+
+    /**
+     * Stops recording after an error. The game itself goes on.
+     *
+     * @param e The error
+     */
+    private void stopRecording(IOException e) {
+        LOG.log(Level.WARNING, "Recording stopped", e);
+        try {
+            recorder.close();
+        } catch (IOException ignored) {
+            // Already failed
+        }
+        recorder = null;
+    }
+
+    /**
+     * Applies an action to the current tetromino.
+     *
+     * @param action The action
+     * @return Whether the tetromino changed
+     */
+    public boolean perform(Action action) {
+        record(action);
+        if (!apply(action)) return false;
+        changes++;
+        if (stream != null) {
+            stream.move(current.getState(), current.getX(), current.getY());
+            if (stream.isKeyframeDue()) {
+                stream.keyframe(field.getBoard(), current.getShape(),
+                        current.getState(), current.getX(), current.getY());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Changes the current tetromino according to an action.
+     *
+     * @param action The action
+     * @return Whether the tetromino changed
+     */
+    private boolean apply(Action action) {
+        switch (action) {
+            case DROP:
                 current.drop();
-                break;
-            case "Left":
-                if (current.validTranslate(-1, 0)) current.move(-1, 0, 0);
-                break;
-            case "Right":
-                if (current.validTranslate(1, 0)) current.move(1, 0, 0);
-                break;
-            case "Rotate":
-                if (current.validRotate()) current.rotate();
+                return true;
+            case LEFT:
+                if (!current.validTranslate(-1, 0)) return false;
+                current.move(-1, 0, 0);
+                return true;
+            case RIGHT:
+                if (!current.validTranslate(1, 0)) return false;
+                current.move(1, 0, 0);
+                return true;
+            case ROTATE:
+                if (!current.validRotate()) return false;
+                current.rotate();
+                return true;
+            default:
+                return tick();
+        }
+    }
+
+    // ---------------------------- Inner Class(es) ----------------------------
+    /**
+     * A root of the scene, that is only updated, if the frame is rendered.
+     */
+    private class Scene extends Node {
+
+        /**
+         * Creates the root.
+         *
+         * @param name The name of the root
+         */
+        Scene(String name) {
+            super(name);
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void updateLogicalState(float tpf) {
+            if (governor == null || governor.isRendering())
+                super.updateLogicalState(tpf);
         }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        public void updateGeometricState() {
+            if (governor == null || governor.isRendering())
+                super.updateGeometricState();
+        }
+
     }
 
 }
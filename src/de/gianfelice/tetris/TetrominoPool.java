@@ -0,0 +1,125 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris;
+
+// --------------------------------- Import(s) ---------------------------------
+import com.jme3.asset.AssetManager;
+import de.gianfelice.tetris.engine.Shape;
+import de.gianfelice.tetris.tetrominos.I;
+import de.gianfelice.tetris.tetrominos.J;
+import de.gianfelice.tetris.tetrominos.L;
+import de.gianfelice.tetris.tetrominos.O;
+import de.gianfelice.tetris.tetrominos.S;
+import de.gianfelice.tetris.tetrominos.T;
+import de.gianfelice.tetris.tetrominos.Tetromino;
+import de.gianfelice.tetris.tetrominos.Z;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Recycles the tetrominos of a field. A tetromino, that has been saved inside
+ * the field, is released to the pool and handed out again for the next spawn
+ * of its shape, so neither the node nor its boxes have to be created again.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class TetrominoPool {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The unused tetrominos per shape. */
+    private final Deque<Tetromino>[] free;
+
+    /** The app's assetmanager. */
+    private final AssetManager assetManager;
+
+    /** The field of the game. */
+    private final Field field;
+
+    /** Id for naming. */
+    private long id = 0;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates an empty pool.
+     *
+     * @param assetManager The app's assetmanager
+     * @param field        The field of the game
+     */
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public TetrominoPool(AssetManager assetManager, Field field) {
+        this.assetManager = assetManager;
+        this.field = field;
+        free = new Deque[Shape.values().length];
+        for (int i = 0; i < free.length; i++) free[i] = new ArrayDeque<>();
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Returns an unused tetromino of a shape in its initial state. A new one
+     * is only created, if none was released before.
+     *
+     * @param shape The shape of the tetromino
+     * @return The tetromino
+     */
+    public Tetromino acquire(Shape shape) {
+        Tetromino t = free[shape.ordinal()].poll();
+        return t != null ? t : create(shape);
+    }
+
+    /**
+     * Creates tetrominos of every shape in advance, so that spawning them
+     * does not build any meshes later.
+     *
+     * @param count The number of tetrominos per shape
+     */
+    public void preload(int count) {
+        for (Shape shape : Shape.values()) {
+            for (int i = free[shape.ordinal()].size(); i < count; i++)
+                free[shape.ordinal()].push(create(shape));
+        }
+    }
+
+    /**
+     * Gives a tetromino back to the pool. It is reset and hidden, but stays
+     * attached, so it must not be used anymore by the caller.
+     *
+     * @param t The tetromino to release
+     */
+    public void release(Tetromino t) {
+        t.reset();
+        free[t.getShape().ordinal()].push(t);
+    }
+
+    /**
+     * Creates a new tetromino.
+     *
+     * @param shape The shape of the tetromino
+     * @return The newly created tetromino
+     */
+    private Tetromino create(Shape shape) {
+        String name = "Tetromino#" + id++;
+        switch (shape) {
+            case I:
+                return new I(name, assetManager, field);
+            case J:
+                return new J(name, assetManager, field);
+            case L:
+                return new L(name, assetManager, field);
+            case O:
+                return new O(name, assetManager, field);
+            case S:
+                return new S(name, assetManager, field);
+            case T:
+                return new T(name, assetManager, field);
+            default:
+                return new Z(name, assetManager, field);
+        }
+    }
+
+}
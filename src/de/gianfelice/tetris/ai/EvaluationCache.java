@@ -0,0 +1,198 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.ai;
+
+// --------------------------------- Import(s) ---------------------------------
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A bounded cache of ratings by the hash of what was rated. It is shared by
+ * all threads of a search without any lock: Every entry is stored as the
+ * value and the key combined with the value by XOR, so an entry, that is
+ * being overwritten by another thread, simply does not match its key and
+ * counts as a miss.
+ * <p>
+ * The entries are grouped into buckets of four. A key may only be stored in
+ * its bucket, where the clock-algorithm chooses the entry to replace: Every
+ * hit marks its entry, and the hand of the bucket passes marked entries once
+ * by unmarking them before replacing the first unmarked one.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class EvaluationCache {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The number of entries per bucket, which must be a power of two. */
+    private static final int WAYS = 4;
+
+    /** The number of counters for hits and misses. */
+    private static final int STRIPES = 16;
+
+    /** The distance between two counters, which keeps them on own lines. */
+    private static final int STRIDE = 16;
+
+    /** The keys combined with their values. */
+    private final long[] checks;
+
+    /** The values as bits. */
+    private final long[] values;
+
+    /** Whether an entry was hit since the hand passed it. */
+    private final boolean[] marks;
+
+    /** The hand of each bucket. */
+    private final byte[] hands;
+
+    /** The mask turning a key into a bucket. */
+    private final int mask;
+
+    /** The hits and misses per stripe, which avoids contending counters. */
+    private final AtomicLongArray counts =
+            new AtomicLongArray(STRIPES * STRIDE);
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates an empty cache.
+     *
+     * @param size The number of entries, which is rounded up to the next
+     *             power of two
+     * @throws IllegalArgumentException If the size is not positive
+     */
+    public EvaluationCache(int size) {
+        if (size < 1) throw new IllegalArgumentException("Size too small!");
+        int buckets = Math.max(1, Integer.highestOneBit(size * 2 - 1) / WAYS);
+        checks = new long[buckets * WAYS];
+        values = new long[buckets * WAYS];
+        marks = new boolean[buckets * WAYS];
+        hands = new byte[buckets];
+        mask = buckets - 1;
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Looks up a rating.
+     *
+     * @param key The hash of what was rated
+     * @return The rating or {@code NaN}, if it is not cached
+     */
+    public double get(long key) {
+        int stripe = stripe();
+        for (int i = bucket(key) * WAYS, end = i + WAYS; i < end; i++) {
+            long value = values[i];
+            if ((checks[i] ^ value) != key) continue;
+            marks[i] = true;
+            counts.getAndIncrement(stripe);
+            return Double.longBitsToDouble(value);
+        }
+        counts.getAndIncrement(stripe + 1);
+        return Double.NaN;
+    }
+
+    /**
+     * Stores a rating, which may replace another one.
+     *
+     * @param key    The hash of what was rated
+     * @param rating The rating
+     */
+    public void put(long key, double rating) {
+        int b = bucket(key), i;
+        while (true) {
+            int hand = hands[b];
+            hands[b] = (byte) ((hand + 1) & (WAYS - 1));
+            i = b * WAYS + hand;
+            if (!marks[i]) break;
+            marks[i] = false;
+        }
+        long value = Double.doubleToRawLongBits(rating);
+        values[i] = value;
+        checks[i] = key ^ value;
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return The size
+     */
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * Returns the number of ratings found.
+     *
+     * @return The number of hits
+     */
+    public long getHits() {
+        return sum(0);
+    }
+
+    /**
+     * Returns the number of ratings not found.
+     *
+     * @return The number of misses
+     */
+    public long getMisses() {
+        return sum(1);
+    }
+
+    /**
+     * Returns the share of the lookups, that found a rating.
+     *
+     * @return The hit-rate between 0 and 1
+     */
+    public double getHitRate() {
+        long hits = getHits(), lookups = hits + getMisses();
+        return lookups == 0 ? 0 : (double) hits / lookups;
+    }
+
+    /**
+     * Describes the size and the hit-rate.
+     *
+     * @return The description
+     */
+    @Override
+    public String toString() {
+        return String.format("cache      %d entries, %d hits, %d misses,"
+                + " %.1f%% hit-rate", size(), getHits(), getMisses(),
+                getHitRate() * 100);
+    }
+
+    /**
+     * Returns the bucket of a key.
+     *
+     * @param key The key
+     * @return The index of the bucket
+     */
+    private int bucket(long key) {
+        return (int) (key >>> 32) & mask;
+    }
+
+    /**
+     * Returns the first counter of the calling thread.
+     *
+     * @return The index of the counter
+     */
+    private static int stripe() {
+        return (int) (Thread.currentThread().getId() % STRIPES) * STRIDE;
+    }
+
+    /**
+     * Sums a counter of all stripes.
+     *
+     * @param offset 0 for the hits or 1 for the misses
+     * @return The sum
+     */
+    private long sum(int offset) {
+        long n = 0;
+        for (int i = offset; i < counts.length(); i += STRIDE)
+            n += counts.get(i);
+        return n;
+    }
+
+}
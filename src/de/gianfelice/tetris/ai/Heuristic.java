@@ -0,0 +1,89 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.ai;
+
+// --------------------------------- Import(s) ---------------------------------
+import de.gianfelice.tetris.engine.Board;
+
+/**
+ * Rates a board by a weighted sum of the aggregate height, the holes, the
+ * bumpiness and the removed lines. Higher scores are better.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class Heuristic {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** Well-known weights, that clear lines for a very long time. */
+    public static final Heuristic DEFAULT =
+            new Heuristic(-.510066, -.35663, -.184483, .760666);
+
+    /** The weight of the sum of all column heights. */
+    private final double height;
+
+    /** The weight of the empty cells below the top of their column. */
+    private final double holes;
+
+    /** The weight of the height differences between neighboured columns. */
+    private final double bumpiness;
+
+    /** The weight of each removed line. */
+    private final double lines;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates a heuristic with the given weights.
+     *
+     * @param height    The weight of the sum of all column heights
+     * @param holes     The weight of the empty cells below the top of their
+     *                  column
+     * @param bumpiness The weight of the height differences between
+     *                  neighboured columns
+     * @param lines     The weight of each removed line
+     */
+    public Heuristic(double height, double holes, double bumpiness,
+            double lines) {
+        this.height = height;
+        this.holes = holes;
+        this.bumpiness = bumpiness;
+        this.lines = lines;
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Rates the removed lines of a placement.
+     *
+     * @param cleared The number of removed lines
+     * @return The score of the lines
+     */
+    public double rate(int cleared) {
+        return lines * cleared;
+    }
+
+    /**
+     * Rates the shape of a board. Everything is taken from the column heights
+     * of the board, since the holes are all cells below the heights, that
+     * contain no box.
+     *
+     * @param board The board to rate
+     * @return The score of the board
+     */
+    public double rate(Board board) {
+        int sum = 0, bump = 0, last = board.getColumnHeight(0);
+        for (int x = 0; x < board.getWidth(); x++) {
+            int h = board.getColumnHeight(x);
+            sum += h;
+            bump += Math.abs(h - last);
+            last = h;
+        }
+        int hole = sum - board.getBoxes();
+        return height * sum + holes * hole + bumpiness * bump;
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.ai;
+
+// --------------------------------- Import(s) ---------------------------------
+/**
+ * The place, where a tetromino should be dropped: The number of rotations
+ * from the spawn and the column to move to.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public final class Placement {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The rotation state to turn to. */
+    private final int state;
+
+    /** The x-coordinate to move to. */
+    private final int x;
+
+    /** The score of the placement. */
+    private final double score;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates a placement.
+     *
+     * @param state The rotation state to turn to
+     * @param x     The x-coordinate to move to
+     * @param score The score of the placement
+     */
+    public Placement(int state, int x, double score) {
+        this.state = state;
+        this.x = x;
+        this.score = score;
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Returns the rotation state, which equals the number of rotations from
+     * the spawn.
+     *
+     * @return The rotation state
+     */
+    public int getState() {
+        return state;
+    }
+
+    /**
+     * Returns the x-coordinate of the tetromino.
+     *
+     * @return The x-coordinate
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Returns the score of the placement.
+     *
+     * @return The score
+     */
+    public double getScore() {
+        return score;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        return "Placement[state=" + state + ", x=" + x + ", score=" + score
+                + "]";
+    }
+
+}
@@ -0,0 +1,376 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.ai;
+
+// --------------------------------- Import(s) ---------------------------------
+import de.gianfelice.tetris.engine.Board;
+import de.gianfelice.tetris.engine.Shape;
+import de.gianfelice.tetris.engine.Zobrist;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Searches the best placement for the current tetromino. Every placement,
+ * that can be reached by rotating at the spawn, moving sideways and dropping,
+ * is rated by a {@link Heuristic} after placing the following tetrominos as
+ * well. The placements of the current tetromino are rated in parallel, if
+ * the planner has got a pool.
+ * <p>
+ * If the search is deeper than the known tetrominos, the score of an unknown
+ * one is the average of the best placements of all shapes.
+ * <p>
+ * With an {@link EvaluationCache} every board reached by the search is
+ * rated only once for the same tetrominos still to place, even if it is
+ * reached by placing them in another order or again by the next search.
+ * Such a planner must only be used for boards of one size.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class Planner {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The score of a board, where the next tetromino does not fit anymore. */
+    private static final double LOST = -1e6;
+
+    /** All shapes an unknown tetromino can have. */
+    private static final Shape[] SHAPES = Shape.values();
+
+    /** The pool running the searches or null to search sequentially. */
+    private final ForkJoinPool pool;
+
+    /** The heuristic rating the boards. */
+    private final Heuristic heuristic;
+
+    /** The number of tetrominos to place for each rating. */
+    private final int depth;
+
+    /** The cache of the ratings or null. */
+    private final EvaluationCache cache;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates a planner.
+     *
+     * @param pool      The pool running the searches
+     * @param heuristic The heuristic rating the boards
+     * @param depth     The number of tetrominos to place for each rating
+     * @throws IllegalArgumentException If the depth is less than one
+     */
+    public Planner(ForkJoinPool pool, Heuristic heuristic, int depth) {
+        this(pool, heuristic, depth, null);
+    }
+
+    /**
+     * Creates a planner, that caches the ratings.
+     *
+     * @param pool      The pool running the searches or null to search
+     *                  sequentially
+     * @param heuristic The heuristic rating the boards
+     * @param depth     The number of tetrominos to place for each rating
+     * @param cache     The cache of the ratings or null
+     * @throws IllegalArgumentException If the depth is less than one
+     */
+    public Planner(ForkJoinPool pool, Heuristic heuristic, int depth,
+            EvaluationCache cache) {
+        if (depth < 1) throw new IllegalArgumentException("Depth too small!");
+        this.pool = pool;
+        this.heuristic = heuristic;
+        this.depth = depth;
+        this.cache = cache;
+    }
+
+    /**
+     * Creates a planner, that searches sequentially inside the calling
+     * thread. It is meant for running many games in parallel.
+     *
+     * @param heuristic The heuristic rating the boards
+     * @param depth     The number of tetrominos to place for each rating
+     * @throws IllegalArgumentException If the depth is less than one
+     */
+    public Planner(Heuristic heuristic, int depth) {
+        this(null, heuristic, depth);
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Returns the cache of the ratings.
+     *
+     * @return The cache or null
+     */
+    public EvaluationCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Starts searching the best placement in the background. The board is
+     * copied, so it may change while searching.
+     *
+     * @param board  The board
+     * @param pieces The current and the following known tetrominos
+     * @param x      The x-coordinate of the spawn
+     * @param y      The y-coordinate of the spawn
+     * @return The running search, which gives null, if nothing fits
+     * @throws IllegalStateException If the planner has got no pool
+     */
+    public ForkJoinTask<Placement> submit(Board board, Shape[] pieces, int x,
+            int y) {
+        if (pool == null) throw new IllegalStateException("No pool!");
+        return pool.submit(new Search(this, new Board(board), pieces.clone(),
+                x, y));
+    }
+
+    /**
+     * Searches the best placement and waits for the result.
+     *
+     * @param board  The board
+     * @param pieces The current and the following known tetrominos
+     * @param x      The x-coordinate of the spawn
+     * @param y      The y-coordinate of the spawn
+     * @return The best placement or null, if nothing fits
+     */
+    public Placement plan(Board board, Shape[] pieces, int x, int y) {
+        Search search = new Search(this, new Board(board), pieces, x, y);
+        return pool != null ? pool.invoke(search) : search.invoke();
+    }
+
+    /**
+     * Rates the best placement of a tetromino and all following ones.
+     *
+     * @param boards  The boards to work in for each level
+     * @param level   The level inside the boards to read from
+     * @param pieces  The known tetrominos
+     * @param x       The x-coordinate of the spawn
+     * @param y       The y-coordinate of the spawn
+     * @return The score of the best placement
+     */
+    private double best(Board[] boards, int level, Shape[] pieces, int x,
+            int y) {
+        if (level < pieces.length) return best(boards, level, pieces[level],
+                pieces, x, y);
+        double sum = 0;
+        for (Shape shape : SHAPES)
+            sum += best(boards, level, shape, pieces, x, y);
+        return sum / SHAPES.length;
+    }
+
+    /**
+     * Rates the best placement of a given shape and all following
+     * tetrominos.
+     *
+     * @param boards The boards to work in for each level
+     * @param level  The level inside the boards to read from
+     * @param shape  The shape to place
+     * @param pieces The known tetrominos
+     * @param x      The x-coordinate of the spawn
+     * @param y      The y-coordinate of the spawn
+     * @return The score of the best placement
+     */
+    private double best(Board[] boards, int level, Shape shape,
+            Shape[] pieces, int x, int y) {
+        Board board = boards[level];
+        double best = LOST;
+        for (int s = 0; s < shape.getStates(); s++) {
+            int mask = shape.getMask(s);
+            if (board.collides(mask, x, y)) break;
+            for (int px = x; !board.collides(mask, px, y); px--)
+                best = Math.max(best, rate(boards, level, mask, pieces, px, x,
+                        y));
+            for (int px = x + 1; !board.collides(mask, px, y); px++)
+                best = Math.max(best, rate(boards, level, mask, pieces, px, x,
+                        y));
+        }
+        return best;
+    }
+
+    /**
+     * Drops a tetromino and rates the result including all following
+     * tetrominos.
+     *
+     * @param boards The boards to work in for each level
+     * @param level  The level inside the boards to read from
+     * @param mask   The mask of the tetromino
+     * @param pieces The known tetrominos
+     * @param px     The x-coordinate to drop at
+     * @param x      The x-coordinate of the spawn
+     * @param y      The y-coordinate of the spawn
+     * @return The score of the placement
+     */
+    private double rate(Board[] boards, int level, int mask, Shape[] pieces,
+            int px, int x, int y) {
+        Board board = boards[level + 1];
+        board.copy(boards[level]);
+        int py = board.dropTo(mask, px, y);
+        board.place(mask, px, py);
+        double score = heuristic.rate(board.clearLines());
+        return score + future(boards, level + 1, pieces, x, y);
+    }
+
+    /**
+     * Rates a board including all tetrominos still to place. The key of the
+     * cache combines the hash of the board with the known tetrominos and the
+     * number of levels left.
+     *
+     * @param boards The boards to work in for each level
+     * @param level  The level of the board to rate
+     * @param pieces The known tetrominos
+     * @param x      The x-coordinate of the spawn
+     * @param y      The y-coordinate of the spawn
+     * @return The score of the board
+     */
+    private double future(Board[] boards, int level, Shape[] pieces, int x,
+            int y) {
+        if (cache == null || level == depth)
+            return uncached(boards, level, pieces, x, y);
+        long key = boards[level].getHash() ^ Zobrist.count(depth - level);
+        for (int i = level; i < depth && i < pieces.length; i++)
+            key ^= Zobrist.piece(pieces[i], i - level);
+        double score = cache.get(key);
+        if (!Double.isNaN(score)) return score;
+        score = uncached(boards, level, pieces, x, y);
+        cache.put(key, score);
+        return score;
+    }
+
+    /**
+     * Rates a board including all tetrominos still to place without the
+     * cache.
+     *
+     * @param boards The boards to work in for each level
+     * @param level  The level of the board to rate
+     * @param pieces The known tetrominos
+     * @param x      The x-coordinate of the spawn
+     * @param y      The y-coordinate of the spawn
+     * @return The score of the board
+     */
+    private double uncached(Board[] boards, int level, Shape[] pieces, int x,
+            int y) {
+        if (level == depth) return heuristic.rate(boards[level]);
+        return best(boards, level, pieces, x, y);
+    }
+
+    // ---------------------------- Inner Class(es) ----------------------------
+    /**
+     * Rates all placements of the current tetromino in parallel and picks
+     * the best one.
+     */
+    private static class Search extends RecursiveTask<Placement> {
+
+        /** The version of the serialized form. */
+        private static final long serialVersionUID = 1L;
+
+        /** The planner to use. */
+        private final Planner planner;
+
+        /** The board. */
+        private final Board board;
+
+        /** The known tetrominos. */
+        private final Shape[] pieces;
+
+        /** The x-coordinate of the spawn. */
+        private final int x;
+
+        /** The y-coordinate of the spawn. */
+        private final int y;
+
+        /**
+         * Creates the search.
+         *
+         * @param planner The planner to use
+         * @param board   The board, which is not changed
+         * @param pieces  The known tetrominos
+         * @param x       The x-coordinate of the spawn
+         * @param y       The y-coordinate of the spawn
+         */
+        Search(Planner planner, Board board, Shape[] pieces, int x, int y) {
+            this.planner = planner;
+            this.board = board;
+            this.pieces = pieces;
+            this.x = x;
+            this.y = y;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected Placement compute() {
+            Shape shape = pieces[0];
+            List<Candidate> candidates = new ArrayList<>();
+            for (int s = 0; s < shape.getStates(); s++) {
+                int mask = shape.getMask(s);
+                if (board.collides(mask, x, y)) break;
+                for (int px = x; !board.collides(mask, px, y); px--)
+                    candidates.add(new Candidate(this, s, px));
+                for (int px = x + 1; !board.collides(mask, px, y); px++)
+                    candidates.add(new Candidate(this, s, px));
+            }
+            if (candidates.isEmpty()) return null;
+
+            if (planner.pool != null) invokeAll(candidates);
+            else for (Candidate c : candidates) c.invoke();
+            Candidate best = candidates.get(0);
+            for (Candidate c : candidates) {
+                if (c.getRawResult() > best.getRawResult()) best = c;
+            }
+            return new Placement(best.state, best.px, best.getRawResult());
+        }
+
+    }
+
+    /**
+     * Rates a single placement of the current tetromino.
+     */
+    private static class Candidate extends RecursiveTask<Double> {
+
+        /** The version of the serialized form. */
+        private static final long serialVersionUID = 1L;
+
+        /** The search this candidate belongs to. */
+        private final Search search;
+
+        /** The rotation state. */
+        private final int state;
+
+        /** The x-coordinate to drop at. */
+        private final int px;
+
+        /**
+         * Creates the candidate.
+         *
+         * @param search The search this candidate belongs to
+         * @param state  The rotation state
+         * @param px     The x-coordinate to drop at
+         */
+        Candidate(Search search, int state, int px) {
+            this.search = search;
+            this.state = state;
+            this.px = px;
+        }
+
+        /**
+         * {@inheritDoc}
+         */
+        @Override
+        protected Double compute() {
+            Planner planner = search.planner;
+            Board[] boards = new Board[planner.depth + 1];
+            boards[0] = search.board;
+            for (int i = 1; i < boards.length; i++)
+                boards[i] = new Board(search.board);
+            return planner.rate(boards, 0, search.pieces[0].getMask(state),
+                    search.pieces, px, search.x, search.y);
+        }
+
+    }
+
+}
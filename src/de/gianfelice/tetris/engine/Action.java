@@ -0,0 +1,107 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.engine;
+
+// --------------------------------- Import(s) ---------------------------------
+/**
+ * Everything, that changes the falling tetromino: The actions of the player
+ * and the tick letting it fall by one row.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public enum Action {
+
+    // ------------------------------- Constant(s) -----------------------------
+    /** Rotates the tetromino. */
+    ROTATE("Rotate"),
+
+    /** Moves the tetromino to the left. */
+    LEFT("Left"),
+
+    /** Moves the tetromino to the right. */
+    RIGHT("Right"),
+
+    /** Drops the tetromino to the bottom. */
+    DROP("Drop"),
+
+    /** Lets the tetromino fall by one row or saves it. */
+    TICK("Tick");
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The name of the action, which is also used for the key-mapping. */
+    private final String mapping;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates the action.
+     *
+     * @param mapping The name of the action
+     */
+    private Action(String mapping) {
+        this.mapping = mapping;
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Returns the name of the action, which is also used for the key-mapping.
+     *
+     * @return The name
+     */
+    public String getMapping() {
+        return mapping;
+    }
+
+    /**
+     * Finds the action of a key-mapping.
+     *
+     * @param mapping The name of the action
+     * @return The action or null, if there is none
+     */
+    public static Action of(String mapping) {
+        switch (mapping) {
+            case "Rotate":
+                return ROTATE;
+            case "Left":
+                return LEFT;
+            case "Right":
+                return RIGHT;
+            case "Drop":
+                return DROP;
+            case "Tick":
+                return TICK;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Applies the action to a game.
+     *
+     * @param game The game
+     */
+    public void apply(Game game) {
+        switch (this) {
+            case ROTATE:
+                game.rotate();
+                break;
+            case LEFT:
+                game.left();
+                break;
+            case RIGHT:
+                game.right();
+                break;
+            case DROP:
+                game.drop();
+                break;
+            default:
+                game.tick();
+        }
+    }
+
+}
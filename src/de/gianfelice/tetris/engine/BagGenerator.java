@@ -0,0 +1,104 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.engine;
+
+// --------------------------------- Import(s) ---------------------------------
+import java.nio.ByteBuffer;
+
+/**
+ * Deals the tetrominos from a bag holding each shape once. The bag is
+ * shuffled, emptied and then refilled, so every shape appears once within
+ * seven tetrominos and no shape is missing for long.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class BagGenerator implements Generator, Resumable {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The shapes in the bag. */
+    private final Shape[] bag = Shape.values();
+
+    /** The source of randomness. */
+    private final SplitRandom random;
+
+    /** The number of shapes left in the bag. */
+    private int left;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates the generator.
+     *
+     * @param random The source of randomness
+     */
+    public BagGenerator(SplitRandom random) {
+        this.random = random;
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Draws a random shape of those left in the bag, which refills the bag
+     * first if it is empty.
+     *
+     * @return The shape of the tetromino
+     */
+    @Override
+    public Shape next() {
+        if (left == 0) left = bag.length;
+        int i = random.nextInt(left--);
+        Shape shape = bag[i];
+        bag[i] = bag[left];
+        bag[left] = shape;
+        return shape;
+    }
+
+    /**
+     * Returns the size of the state, which is the order of the bag, the
+     * number of shapes left and the state of the source of randomness.
+     *
+     * @return The size of the state
+     */
+    @Override
+    public int getStateSize() {
+        return bag.length + 1 + random.getStateSize();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void save(ByteBuffer out) {
+        for (Shape shape : bag) out.put((byte) shape.ordinal());
+        out.put((byte) left);
+        random.save(out);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void restore(ByteBuffer in) {
+        Shape[] shapes = Shape.values(), restored = new Shape[bag.length];
+        int seen = 0;
+        for (int i = 0; i < restored.length; i++) {
+            int ordinal = in.get();
+            if (ordinal < 0 || ordinal >= shapes.length
+                    || (seen & 1 << ordinal) != 0)
+                throw new IllegalArgumentException("Invalid bag!");
+            seen |= 1 << ordinal;
+            restored[i] = shapes[ordinal];
+        }
+        int n = in.get();
+        if (n < 0 || n > bag.length)
+            throw new IllegalArgumentException("Invalid bag!");
+        random.restore(in);
+        System.arraycopy(restored, 0, bag, 0, bag.length);
+        left = n;
+    }
+
+}
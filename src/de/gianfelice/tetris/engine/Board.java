@@ -0,0 +1,425 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.engine;
+
+// --------------------------------- Import(s) ---------------------------------
+/**
+ * The rules of the game without any rendering. Every row of the board is
+ * stored as a 64-bit mask, so that collision-checking, placing and clearing are
+ * done with a few bitwise operations per row and without any allocation.
+ * <p>
+ * Pieces are passed as 4x4-masks with 16 bits, where the bit
+ * {@code y * 4 + x} is set, if the cell at {@code (x, y)} of the piece is
+ * occupied. The origin is the lower left corner, just like the position of a
+ * tetromino upon the field.
+ * <p>
+ * The board keeps a {@link Zobrist}-hash of its boxes, which is updated by
+ * placing and clearing, so equal boards can be recognized without comparing
+ * them.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class Board {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** Offset of the first column inside a row, which leaves room for walls. */
+    private static final int OFFSET = 4;
+
+    /** The maximal width of a board. */
+    public static final int MAX_WIDTH = 64 - 2 * OFFSET;
+
+    /** The maximal height of a board. */
+    public static final int MAX_HEIGHT = Short.MAX_VALUE;
+
+    /** A row where every bit is set. */
+    private static final long FULL = -1;
+
+    /** The rows of the board from bottom to top. */
+    private final long[] rows;
+
+    /** A row only consisting of the walls. */
+    private final long empty;
+
+    /** Width of the board. */
+    private final int width;
+
+    /** Height of the board. */
+    private final int height;
+
+    /** The height of every column, which is the row above its top box. */
+    private final int[] heights;
+
+    /** The number of boxes on the board. */
+    private int boxes;
+
+    /** The rows deleted by the last clearing from bottom to top. */
+    private final int[] cleared;
+
+    /** The number of rows deleted by the last clearing. */
+    private int count;
+
+    /** The lowest row changed since the last clearing. */
+    private int touchedFrom;
+
+    /** The row above the highest one changed since the last clearing. */
+    private int touchedTo;
+
+    /** The row above the highest one, that may contain a box. */
+    private int top;
+
+    /** The Zobrist-hash of the boxes. */
+    private long hash;
+
+    /** Whether the game is over. */
+    private boolean over;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates an empty board.
+     *
+     * @param width  The width of the board
+     * @param height The height of the board
+     * @throws IllegalArgumentException If the dimensions are out of range
+     */
+    public Board(int width, int height) {
+        if (width < 4 || width > MAX_WIDTH)
+            throw new IllegalArgumentException("Width is out of range!");
+        if (height < 4 || height > MAX_HEIGHT)
+            throw new IllegalArgumentException("Height is out of range!");
+        this.width = width;
+        this.height = height;
+        rows = new long[height];
+        heights = new int[width];
+        cleared = new int[height];
+        empty = ~(((1L << width) - 1) << OFFSET);
+        reset();
+    }
+
+    /**
+     * Creates a copy of another board.
+     *
+     * @param other The board to copy
+     */
+    public Board(Board other) {
+        this(other.width, other.height);
+        copy(other);
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Parses the size of a board given as {@code <width>x<height>}, e.g. on
+     * the command-line.
+     *
+     * @param size The size
+     * @return The width and the height
+     * @throws IllegalArgumentException If the size is malformed or out of
+     *                                  range
+     */
+    public static int[] parseSize(String size) {
+        String[] parts = size.split("x");
+        if (parts.length != 2)
+            throw new IllegalArgumentException("Size is not <width>x<height>!");
+        int width = Integer.parseInt(parts[0]);
+        int height = Integer.parseInt(parts[1]);
+        if (width < 4 || width > MAX_WIDTH)
+            throw new IllegalArgumentException("Width is out of range!");
+        if (height < 4 || height > MAX_HEIGHT)
+            throw new IllegalArgumentException("Height is out of range!");
+        return new int[] {width, height};
+    }
+
+    /**
+     * Returns the width of the board.
+     *
+     * @return The width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the board.
+     *
+     * @return The height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Removes all boxes from the board and starts a new game.
+     */
+    public void reset() {
+        for (int y = 0; y < height; y++) rows[y] = empty;
+        for (int x = 0; x < width; x++) heights[x] = 0;
+        boxes = 0;
+        count = 0;
+        touchedFrom = height;
+        touchedTo = 0;
+        top = 0;
+        hash = 0;
+        over = false;
+    }
+
+    /**
+     * Overwrites this board with the content of another one of the same size.
+     *
+     * @param other The board to copy
+     * @throws IllegalArgumentException If the dimensions do not match
+     */
+    public void copy(Board other) {
+        if (other.width != width || other.height != height)
+            throw new IllegalArgumentException("Dimensions do not match!");
+        System.arraycopy(other.rows, 0, rows, 0, height);
+        System.arraycopy(other.heights, 0, heights, 0, width);
+        System.arraycopy(other.cleared, 0, cleared, 0, other.count);
+        boxes = other.boxes;
+        count = other.count;
+        touchedFrom = other.touchedFrom;
+        touchedTo = other.touchedTo;
+        top = other.top;
+        hash = other.hash;
+        over = other.over;
+    }
+
+    /**
+     * Checks, whether a given field is already occupied. Everything outside
+     * of the board counts as occupied.
+     *
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     * @return Whether the field is already occupied
+     */
+    public boolean isOccupied(int x, int y) {
+        if (x < 0 || x >= width) return true;
+        if (y < 0 || y >= height) return true;
+        return (rows[y] & (1L << (x + OFFSET))) != 0;
+    }
+
+    /**
+     * Returns the occupied cells of a row, where bit {@code x} stands for the
+     * column {@code x}.
+     *
+     * @param y The row
+     * @return The cells of the row
+     */
+    public long getRow(int y) {
+        return (rows[y] & ~empty) >>> OFFSET;
+    }
+
+    /**
+     * Checks, whether a piece would collide with the walls or any box.
+     *
+     * @param mask The 4x4-mask of the piece
+     * @param x    The x-coordinate of the piece
+     * @param y    The y-coordinate of the piece
+     * @return Whether the piece collides
+     */
+    public boolean collides(int mask, int x, int y) {
+        if (x < -OFFSET || x > width) return mask != 0;
+        for (int r = 0; r < 4; r++, y++, mask >>>= 4) {
+            int bits = mask & 0xF;
+            if (bits == 0) continue;
+            if (y < 0 || y >= height) return true;
+            if (((long) bits << (x + OFFSET) & rows[y]) != 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Places a piece on the board. The caller has to make sure, that it does
+     * not collide. The rows of the piece are remembered for the next
+     * {@link #clearLines()} and the heights of its columns are raised.
+     *
+     * @param mask The 4x4-mask of the piece
+     * @param x    The x-coordinate of the piece
+     * @param y    The y-coordinate of the piece
+     */
+    public void place(int mask, int x, int y) {
+        for (int r = 0; r < 4; r++, y++, mask >>>= 4) {
+            int bits = mask & 0xF;
+            if (bits == 0) continue;
+            rows[y] |= (long) bits << (x + OFFSET);
+            boxes += Integer.bitCount(bits);
+            for (int c = x; bits != 0; bits >>>= 1, c++) {
+                if ((bits & 1) == 0) continue;
+                if (heights[c] <= y) heights[c] = y + 1;
+                hash ^= Zobrist.cell(c, y);
+            }
+            if (y < touchedFrom) touchedFrom = y;
+            if (y >= touchedTo) touchedTo = y + 1;
+        }
+        if (touchedTo > top) top = touchedTo;
+    }
+
+    /**
+     * Calculates the row, where a piece lands when dropped. As long as the
+     * piece is above the top box of every column it covers, the row follows
+     * from the column heights without checking the rows in between.
+     *
+     * @param mask The 4x4-mask of the piece, which must not collide
+     * @param x    The x-coordinate of the piece
+     * @param y    The y-coordinate of the piece
+     * @return The y-coordinate after dropping
+     */
+    public int dropTo(int mask, int x, int y) {
+        int to = Integer.MIN_VALUE;
+        for (int c = 0; c < 4; c++) {
+            int column = (mask >>> c) & 0x1111;
+            if (column == 0) continue;
+            int bottom = Integer.numberOfTrailingZeros(column) >> 2;
+            int h = heights[x + c];
+            if (y + bottom < h) {
+                while (!collides(mask, x, y - 1)) y--;
+                return y;
+            }
+            to = Math.max(to, h - bottom);
+        }
+        return to == Integer.MIN_VALUE ? y : to;
+    }
+
+    /**
+     * Checks, whether a new piece can enter the board. If not, the game is
+     * over.
+     *
+     * @param mask The 4x4-mask of the piece
+     * @param x    The x-coordinate of the piece
+     * @param y    The y-coordinate of the piece
+     * @return Whether the piece fits
+     */
+    public boolean spawn(int mask, int x, int y) {
+        if (collides(mask, x, y)) over = true;
+        return !over;
+    }
+
+    /**
+     * Returns, whether the game is over.
+     *
+     * @return Whether the game is over
+     */
+    public boolean isGameOver() {
+        return over;
+    }
+
+    /**
+     * Checks, whether a row is completely filled.
+     *
+     * @param y The row
+     * @return Whether the row is full
+     */
+    public boolean isFull(int y) {
+        return rows[y] == FULL;
+    }
+
+    /**
+     * Deletes all full rows in one pass. Only the rows changed by
+     * {@link #place(int, int, int)} since the last call can become full, so
+     * only those are checked, and only the rows up to the highest box are
+     * moved down.
+     *
+     * @return The number of deleted rows
+     */
+    public int clearLines() {
+        count = 0;
+        for (int y = touchedFrom; y < touchedTo; y++) {
+            if (rows[y] == FULL) cleared[count++] = y;
+        }
+        touchedFrom = height;
+        touchedTo = 0;
+        if (count == 0) return 0;
+
+        // The moved rows change their keys, so they are hashed again
+        int to = cleared[0];
+        for (int y = to; y < top; y++) hash ^= rowHash(y);
+        for (int y = to, c = 0; y < top; y++) {
+            if (c < count && cleared[c] == y) c++;
+            else rows[to++] = rows[y];
+        }
+        for (int y = to; y < top; y++) rows[y] = empty;
+        top = to;
+        for (int y = cleared[0]; y < top; y++) hash ^= rowHash(y);
+
+        // Every column has a box in each deleted row
+        boxes -= count * width;
+        long bit = 1L << OFFSET;
+        for (int x = 0; x < width; x++, bit <<= 1) {
+            int h = heights[x] - count;
+            while (h > 0 && (rows[h - 1] & bit) == 0) h--;
+            heights[x] = h;
+        }
+        return count;
+    }
+
+    /**
+     * Returns a row deleted by the last {@link #clearLines()}. The rows are
+     * given from bottom to top as they were before the deletion.
+     *
+     * @param i The index between 0 and the number of deleted rows
+     * @return The row
+     */
+    public int getCleared(int i) {
+        return cleared[i];
+    }
+
+    /**
+     * Returns the height of a column, which is the row above its top box or
+     * 0, if the column is empty.
+     *
+     * @param x The column
+     * @return The height
+     */
+    public int getColumnHeight(int x) {
+        return heights[x];
+    }
+
+    /**
+     * Returns the number of boxes on the board.
+     *
+     * @return The number of boxes
+     */
+    public int getBoxes() {
+        return boxes;
+    }
+
+    /**
+     * Returns the Zobrist-hash of the boxes. Boards with the same boxes have
+     * the same hash.
+     *
+     * @return The hash
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Returns the row above the highest one, that may contain a box. All rows
+     * from this one upwards are empty.
+     *
+     * @return The row
+     */
+    public int getTop() {
+        return top;
+    }
+
+    /**
+     * Combines the keys of all boxes of a row.
+     *
+     * @param y The row
+     * @return The hash of the row
+     */
+    private long rowHash(int y) {
+        long h = 0;
+        long bits = getRow(y);
+        for (int x = 0; bits != 0; bits >>>= 1, x++) {
+            if ((bits & 1) != 0) h ^= Zobrist.cell(x, y);
+        }
+        return h;
+    }
+
+}
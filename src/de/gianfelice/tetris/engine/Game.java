@@ -0,0 +1,318 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.engine;
+
+// --------------------------------- Import(s) ---------------------------------
+/**
+ * A complete game without any rendering: The board, the falling tetromino
+ * and the next one. It knows the same actions as the keys and a tick, which
+ * lets the tetromino fall by one row.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class Game {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The points for removing one to four lines at once. */
+    private static final int[] POINTS = {0, 40, 100, 300, 1200};
+
+    /** The board of the game. */
+    private final Board board;
+
+    /** The tetrominos coming next. */
+    private final Preview preview;
+
+    /** The x-coordinate of the spawn. */
+    private final int spawnX;
+
+    /** The y-coordinate of the spawn. */
+    private final int spawnY;
+
+    /** The falling tetromino. */
+    private Shape current;
+
+    /** The rotation state of the falling tetromino. */
+    private int state;
+
+    /** The x-coordinate of the falling tetromino. */
+    private int x;
+
+    /** The y-coordinate of the falling tetromino. */
+    private int y;
+
+    /** The number of tetrominos spawned so far. */
+    private long pieces;
+
+    /** The number of removals of one to four lines at once. */
+    private final long[] clears = new long[POINTS.length];
+
+    /** The score. */
+    private long score;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates and starts a game, which shows only the next tetromino.
+     *
+     * @param width     The width of the board
+     * @param height    The height of the board
+     * @param generator The source of the tetrominos
+     */
+    public Game(int width, int height, Generator generator) {
+        this(width, height, generator, 1);
+    }
+
+    /**
+     * Creates and starts a game.
+     *
+     * @param width     The width of the board
+     * @param height    The height of the board
+     * @param generator The source of the tetrominos
+     * @param previews  The number of tetrominos known in advance
+     */
+    public Game(int width, int height, Generator generator, int previews) {
+        board = new Board(width, height);
+        preview = new Preview(generator, previews);
+        spawnX = (width - 4) / 2;
+        spawnY = height - 4;
+        spawn();
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Moves the tetromino one column to the left.
+     *
+     * @return Whether the move was possible
+     */
+    public boolean left() {
+        return move(-1, 0);
+    }
+
+    /**
+     * Moves the tetromino one column to the right.
+     *
+     * @return Whether the move was possible
+     */
+    public boolean right() {
+        return move(1, 0);
+    }
+
+    /**
+     * Rotates the tetromino to its next state.
+     *
+     * @return Whether the rotation was possible
+     */
+    public boolean rotate() {
+        if (board.isGameOver()) return false;
+        int n = current.nextState(state);
+        if (board.collides(current.getMask(n), x, y)) return false;
+        state = n;
+        return true;
+    }
+
+    /**
+     * Drops the tetromino to the bottom. It is saved with the next tick.
+     */
+    public void drop() {
+        if (board.isGameOver()) return;
+        y = board.dropTo(current.getMask(state), x, y);
+    }
+
+    /**
+     * Lets the tetromino fall by one row. If it already lies on the bottom,
+     * it is saved, full rows are removed and the next tetromino spawns.
+     *
+     * @return The number of removed lines
+     */
+    public int tick() {
+        if (move(0, -1) || board.isGameOver()) return 0;
+        board.place(current.getMask(state), x, y);
+        int cleared = board.clearLines();
+        clears[cleared]++;
+        score += POINTS[cleared];
+        spawn();
+        return cleared;
+    }
+
+    /**
+     * Moves the tetromino to a given rotation state and column, drops it and
+     * saves it.
+     *
+     * @param state The rotation state
+     * @param x     The x-coordinate
+     * @return The number of removed lines
+     */
+    public int place(int state, int x) {
+        while (this.state != state && rotate()) {}
+        while (this.x > x && left()) {}
+        while (this.x < x && right()) {}
+        drop();
+        return tick();
+    }
+
+    /**
+     * Returns the board of the game.
+     *
+     * @return The board
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Returns the falling tetromino.
+     *
+     * @return The shape of the falling tetromino
+     */
+    public Shape getCurrent() {
+        return current;
+    }
+
+    /**
+     * Returns the next tetromino.
+     *
+     * @return The shape of the next tetromino
+     */
+    public Shape getNext() {
+        return preview.peek(0);
+    }
+
+    /**
+     * Returns the tetrominos coming next.
+     *
+     * @return The queue of the tetrominos
+     */
+    public Preview getPreview() {
+        return preview;
+    }
+
+    /**
+     * Returns the rotation state of the falling tetromino.
+     *
+     * @return The rotation state
+     */
+    public int getState() {
+        return state;
+    }
+
+    /**
+     * Returns the x-coordinate of the falling tetromino.
+     *
+     * @return The x-coordinate
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Returns the y-coordinate of the falling tetromino.
+     *
+     * @return The y-coordinate
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Returns the x-coordinate of the spawn.
+     *
+     * @return The x-coordinate
+     */
+    public int getSpawnX() {
+        return spawnX;
+    }
+
+    /**
+     * Returns the y-coordinate of the spawn.
+     *
+     * @return The y-coordinate
+     */
+    public int getSpawnY() {
+        return spawnY;
+    }
+
+    /**
+     * Returns, whether the game is over.
+     *
+     * @return Whether the game is over
+     */
+    public boolean isGameOver() {
+        return board.isGameOver();
+    }
+
+    /**
+     * Returns the number of tetrominos spawned so far.
+     *
+     * @return The number of tetrominos
+     */
+    public long getPieces() {
+        return pieces;
+    }
+
+    /**
+     * Returns, how often a given number of lines was removed at once.
+     *
+     * @param lines The number of lines between 0 and 4
+     * @return The number of removals
+     */
+    public long getClears(int lines) {
+        return clears[lines];
+    }
+
+    /**
+     * Returns the number of removed lines.
+     *
+     * @return The number of lines
+     */
+    public long getLines() {
+        long lines = 0;
+        for (int i = 1; i < clears.length; i++) lines += i * clears[i];
+        return lines;
+    }
+
+    /**
+     * Returns the score.
+     *
+     * @return The score
+     */
+    public long getScore() {
+        return score;
+    }
+
+    /**
+     * Tries to move the tetromino.
+     *
+     * @param dx The offset in x-direction
+     * @param dy The offset in y-direction
+     * @return Whether the move was possible
+     */
+    private boolean move(int dx, int dy) {
+        if (board.isGameOver()) return false;
+        if (board.collides(current.getMask(state), x + dx, y + dy))
+            return false;
+        x += dx;
+        y += dy;
+        return true;
+    }
+
+    /**
+     * Lets the next tetromino spawn and chooses a new next one. If the next
+     * tetromino does not fit, the game is over and no new one is chosen, just
+     * like a recorded game does not record one.
+     */
+    private void spawn() {
+        current = preview.peek(0);
+        state = 0;
+        x = spawnX;
+        y = spawnY;
+        if (!board.spawn(current.getMask(state), x, y)) return;
+        preview.next();
+        pieces++;
+    }
+
+}
@@ -0,0 +1,27 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.engine;
+
+// --------------------------------- Import(s) ---------------------------------
+/**
+ * The source of the tetrominos of a game.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public interface Generator {
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Chooses the next tetromino.
+     *
+     * @return The shape of the tetromino
+     */
+    Shape next();
+
+}
@@ -0,0 +1,80 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.engine;
+
+// --------------------------------- Import(s) ---------------------------------
+/**
+ * The queue of the tetrominos coming next, which are shown to the player
+ * and known to the bots. The queue is always full: taking a tetromino draws
+ * a new one from the generator behind.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class Preview implements Generator {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The source of the tetrominos. */
+    private final Generator generator;
+
+    /** The queued shapes as a ring. */
+    private final Shape[] shapes;
+
+    /** The index of the first queued shape. */
+    private int head;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates the queue and fills it.
+     *
+     * @param generator The source of the tetrominos
+     * @param size      The number of queued tetrominos
+     * @throws IllegalArgumentException If the size is less than one
+     */
+    public Preview(Generator generator, int size) {
+        if (size < 1) throw new IllegalArgumentException("Size too small!");
+        this.generator = generator;
+        shapes = new Shape[size];
+        for (int i = 0; i < size; i++) shapes[i] = generator.next();
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Takes the first tetromino and queues a new one at the end.
+     *
+     * @return The shape of the taken tetromino
+     */
+    @Override
+    public Shape next() {
+        Shape shape = shapes[head];
+        shapes[head] = generator.next();
+        head = head + 1 < shapes.length ? head + 1 : 0;
+        return shape;
+    }
+
+    /**
+     * Returns a queued tetromino without taking it.
+     *
+     * @param i The position in the queue, where 0 is the next one
+     * @return The shape of the tetromino
+     */
+    public Shape peek(int i) {
+        int j = head + i;
+        return shapes[j < shapes.length ? j : j - shapes.length];
+    }
+
+    /**
+     * Returns the number of queued tetrominos.
+     *
+     * @return The size of the queue
+     */
+    public int size() {
+        return shapes.length;
+    }
+
+}
@@ -0,0 +1,71 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.engine;
+
+// --------------------------------- Import(s) ---------------------------------
+import java.nio.ByteBuffer;
+
+/**
+ * Chooses every tetromino independently with the same probability.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class RandomGenerator implements Generator, Resumable {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** All shapes to choose from. */
+    private static final Shape[] SHAPES = Shape.values();
+
+    /** The source of randomness. */
+    private final SplitRandom random;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates the generator.
+     *
+     * @param random The source of randomness
+     */
+    public RandomGenerator(SplitRandom random) {
+        this.random = random;
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Shape next() {
+        return SHAPES[random.nextInt(SHAPES.length)];
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getStateSize() {
+        return random.getStateSize();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void save(ByteBuffer out) {
+        random.save(out);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void restore(ByteBuffer in) {
+        random.restore(in);
+    }
+
+}
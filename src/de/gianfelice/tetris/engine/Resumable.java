@@ -0,0 +1,47 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.engine;
+
+// --------------------------------- Import(s) ---------------------------------
+import java.nio.ByteBuffer;
+
+/**
+ * Something, whose state can be saved and restored later, so that it goes on
+ * exactly where it stopped, e.g. a {@link Generator} dealing the same
+ * tetrominos after a game has been resumed.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public interface Resumable {
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Returns the number of bytes written by {@link #save(ByteBuffer)}.
+     *
+     * @return The size of the state
+     */
+    int getStateSize();
+
+    /**
+     * Writes the state into a buffer.
+     *
+     * @param out The buffer to write to
+     */
+    void save(ByteBuffer out);
+
+    /**
+     * Reads a state written by {@link #save(ByteBuffer)} and continues from
+     * there.
+     *
+     * @param in The buffer to read from
+     * @throws IllegalArgumentException If the state is invalid
+     */
+    void restore(ByteBuffer in);
+
+}
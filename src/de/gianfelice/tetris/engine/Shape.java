@@ -0,0 +1,118 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.engine;
+
+// --------------------------------- Import(s) ---------------------------------
+/**
+ * The shapes of all tetrominos. Each rotation state is built once as a
+ * 4x4-mask (see {@link Board}) and shared by every tetromino of that shape.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public enum Shape {
+
+    // ------------------------------ Constant(s) ------------------------------
+    /** The I tetromino. */
+    I(new int[][] {
+        {1, 0, 1, 1, 1, 2, 1, 3},
+        {0, 1, 1, 1, 2, 1, 3, 1}
+    }),
+
+    /** The J tetromino. */
+    J(new int[][] {
+        {1, 1, 2, 1, 2, 2, 2, 3},
+        {0, 2, 0, 1, 1, 1, 2, 1},
+        {2, 3, 1, 3, 1, 2, 1, 1},
+        {2, 1, 2, 2, 1, 2, 0, 2}
+    }),
+
+    /** The L tetromino. */
+    L(new int[][] {
+        {2, 1, 1, 1, 1, 2, 1, 3},
+        {0, 1, 0, 2, 1, 2, 2, 2},
+        {1, 3, 2, 3, 2, 2, 2, 1},
+        {2, 2, 2, 1, 1, 1, 0, 1}
+    }),
+
+    /** The O tetromino. */
+    O(new int[][] {
+        {1, 2, 2, 2, 1, 3, 2, 3}
+    }),
+
+    /** The S tetromino. */
+    S(new int[][] {
+        {0, 2, 1, 2, 1, 3, 2, 3},
+        {1, 3, 1, 2, 2, 2, 2, 1}
+    }),
+
+    /** The T tetromino. */
+    T(new int[][] {
+        {1, 3, 0, 2, 1, 2, 2, 2},
+        {1, 2, 0, 3, 0, 2, 0, 1},
+        {1, 2, 0, 3, 1, 3, 2, 3},
+        {0, 2, 1, 1, 1, 2, 1, 3}
+    }),
+
+    /** The Z tetromino. */
+    Z(new int[][] {
+        {0, 3, 1, 3, 1, 2, 2, 2},
+        {2, 3, 2, 2, 1, 2, 1, 1}
+    });
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The masks of the rotation states. */
+    private final int[] masks;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Builds the masks of all rotation states.
+     *
+     * @param states The coordinates of the four boxes per state given as
+     *               {@code x0, y0, x1, y1, ...}
+     */
+    private Shape(int[][] states) {
+        masks = new int[states.length];
+        for (int s = 0; s < states.length; s++) {
+            for (int i = 0; i < states[s].length; i += 2)
+                masks[s] |= 1 << (states[s][i + 1] * 4 + states[s][i]);
+        }
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Returns the number of rotation states.
+     *
+     * @return The number of states
+     */
+    public int getStates() {
+        return masks.length;
+    }
+
+    /**
+     * Returns the mask of a rotation state.
+     *
+     * @param state The rotation state
+     * @return The mask of the state
+     */
+    public int getMask(int state) {
+        return masks[state];
+    }
+
+    /**
+     * Rotating just changes the state. This method gets the next state on the
+     * list.
+     *
+     * @param state The current state
+     * @return Next rotating-state on the list
+     */
+    public int nextState(int state) {
+        return state + 1 < masks.length ? state + 1 : 0;
+    }
+
+}
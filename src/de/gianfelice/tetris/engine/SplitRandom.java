@@ -0,0 +1,109 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.engine;
+
+// --------------------------------- Import(s) ---------------------------------
+import java.nio.ByteBuffer;
+
+/**
+ * A small and fast source of randomness for a single thread, which works
+ * like the SplittableRandom of newer Java versions. Unlike
+ * {@link java.util.Random} it does not update an atomic seed for every
+ * number, so games on several threads never contend. Each game should get
+ * its own instance, either from its own seed or by {@link #split()}.
+ * <p>
+ * The numbers are produced by SplitMix64, so the same seed always gives the
+ * same numbers on every platform.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public final class SplitRandom implements Resumable {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The step between two states, which is odd and well mixed. */
+    private static final long GAMMA = 0x9E3779B97F4A7C15L;
+
+    /** The current state. */
+    private long state;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates a source from a seed.
+     *
+     * @param seed The seed
+     */
+    public SplitRandom(long seed) {
+        state = seed;
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Returns the next random number.
+     *
+     * @return Any long-value
+     */
+    public long nextLong() {
+        long z = state += GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Returns a random number below a bound. Every number is equally likely.
+     *
+     * @param bound The bound, which must be positive
+     * @return A number between 0 and the bound excluded
+     * @throws IllegalArgumentException If the bound is not positive
+     */
+    public int nextInt(int bound) {
+        if (bound <= 0)
+            throw new IllegalArgumentException("Bound must be positive!");
+        int r = (int) (nextLong() >>> 33);
+        for (int u = r; u - (r = u % bound) + bound - 1 < 0;)
+            u = (int) (nextLong() >>> 33);
+        return r;
+    }
+
+    /**
+     * Creates a new source, whose numbers do not depend on the following
+     * numbers of this one. Used to give each game of a series its own source
+     * derived from one seed.
+     *
+     * @return The new source
+     */
+    public SplitRandom split() {
+        return new SplitRandom(nextLong());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getStateSize() {
+        return 8;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void save(ByteBuffer out) {
+        out.putLong(state);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void restore(ByteBuffer in) {
+        state = in.getLong();
+    }
+
+}
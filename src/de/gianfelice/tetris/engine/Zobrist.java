@@ -0,0 +1,83 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.engine;
+
+// --------------------------------- Import(s) ---------------------------------
+/**
+ * The random keys for Zobrist-hashing. A state is hashed by combining the
+ * keys of all its parts with XOR, so adding or removing a part only takes
+ * one XOR. The keys are derived from the index of the part by the mixing of
+ * SplitMix64 instead of being stored in a table, so boards of any size can
+ * be hashed and the keys are the same in every run.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public final class Zobrist {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The number of indices reserved for the cells of a row. */
+    private static final long ROW = Board.MAX_WIDTH;
+
+    /** The first index of the keys, that are no cells. */
+    private static final long OTHER = 1L << 40;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * No instances needed.
+     */
+    private Zobrist() {}
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Returns the key of an occupied cell.
+     *
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     * @return The key
+     */
+    public static long cell(int x, int y) {
+        return mix(y * ROW + x);
+    }
+
+    /**
+     * Returns the key of a tetromino at a position of a sequence, like the
+     * known tetrominos of a search.
+     *
+     * @param shape    The shape of the tetromino
+     * @param position The position in the sequence
+     * @return The key
+     */
+    public static long piece(Shape shape, int position) {
+        return mix(OTHER + position * 8L + shape.ordinal());
+    }
+
+    /**
+     * Returns the key of a count, like the number of levels left to search.
+     *
+     * @param count The count
+     * @return The key
+     */
+    public static long count(int count) {
+        return mix(OTHER - 1 - count);
+    }
+
+    /**
+     * Turns an index into a key, which looks random.
+     *
+     * @param index The index
+     * @return The key
+     */
+    private static long mix(long index) {
+        long z = (index + 1) * 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+}
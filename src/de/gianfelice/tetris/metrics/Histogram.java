@@ -0,0 +1,141 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.metrics;
+
+// --------------------------------- Import(s) ---------------------------------
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counts durations in buckets, whose width grows with the duration, so every
+ * bucket is at most 12.5 percent wide. Recording a duration is a single
+ * increment without any allocation, the percentiles are only calculated when
+ * read.
+ * <p>
+ * Only one thread may record, but any thread may read.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class Histogram implements HistogramMBean {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The number of bits dividing each power of two into buckets. */
+    private static final int SUB = 3;
+
+    /** The number of buckets, which covers every positive long. */
+    private static final int BUCKETS = (64 - SUB) << SUB;
+
+    /** The number of durations per bucket. */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /** The number of durations. */
+    private volatile long count;
+
+    /** The longest duration in nanoseconds. */
+    private volatile long max;
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Records a duration.
+     *
+     * @param nanos The duration in nanoseconds
+     */
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        int i = index(nanos);
+        counts.lazySet(i, counts.get(i) + 1);
+        count = count + 1;
+        if (nanos > max) max = nanos;
+    }
+
+    /**
+     * Returns the duration, that a given share of the recorded durations
+     * does not exceed. The result is the upper end of the bucket.
+     *
+     * @param share The share between 0 and 1
+     * @return The duration in nanoseconds
+     */
+    public long getPercentile(double share) {
+        long target = (long) Math.ceil(share * count), seen = 0;
+        if (target <= 0) return 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= target) return Math.min(upper(i), max);
+        }
+        return max;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getP50() {
+        return getPercentile(.5) / 1e3;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getP99() {
+        return getPercentile(.99) / 1e3;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public double getMax() {
+        return max / 1e3;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) counts.set(i, 0);
+        count = 0;
+        max = 0;
+    }
+
+    /**
+     * Calculates the bucket of a duration.
+     *
+     * @param nanos The duration, which must not be negative
+     * @return The bucket
+     */
+    private static int index(long nanos) {
+        if (nanos < 1 << SUB) return (int) nanos;
+        int e = 63 - Long.numberOfLeadingZeros(nanos);
+        return ((e - SUB + 1) << SUB)
+                + (int) ((nanos >>> (e - SUB)) & ((1 << SUB) - 1));
+    }
+
+    /**
+     * Calculates the longest duration of a bucket.
+     *
+     * @param i The bucket
+     * @return The duration
+     */
+    private static long upper(int i) {
+        if (i < 1 << SUB) return i;
+        int shift = (i >> SUB) - 1;
+        long lower = ((long) ((1 << SUB) + (i & ((1 << SUB) - 1)))) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+}
@@ -0,0 +1,54 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.metrics;
+
+// --------------------------------- Import(s) ---------------------------------
+/**
+ * The management-interface of a {@link Histogram}. All times are given in
+ * microseconds.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public interface HistogramMBean {
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Returns the number of recorded times.
+     *
+     * @return The number of times
+     */
+    long getCount();
+
+    /**
+     * Returns the median of the recorded times.
+     *
+     * @return The median in microseconds
+     */
+    double getP50();
+
+    /**
+     * Returns the time, that 99 percent of the recorded times do not exceed.
+     *
+     * @return The time in microseconds
+     */
+    double getP99();
+
+    /**
+     * Returns the longest recorded time.
+     *
+     * @return The time in microseconds
+     */
+    double getMax();
+
+    /**
+     * Forgets all recorded times.
+     */
+    void reset();
+
+}
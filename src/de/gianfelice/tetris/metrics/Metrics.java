@@ -0,0 +1,293 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.metrics;
+
+// --------------------------------- Import(s) ---------------------------------
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * The measurements of a running game. The latencies of the stages are
+ * recorded into {@link Histogram}s and the game counts tetrominos and lines.
+ * Nothing is calculated until somebody reads the metrics, either by JMX
+ * after {@link #register()} or as text by {@link #toString()}.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class Metrics implements MetricsMBean {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The domain of all registered names. */
+    public static final String DOMAIN = "de.gianfelice.tetris";
+
+    /** The time of one update of the game. */
+    private final Histogram update = new Histogram();
+
+    /** The time of saving a tetromino inside the field. */
+    private final Histogram save = new Histogram();
+
+    /** The time of checking and removing full rows. */
+    private final Histogram checkRows = new Histogram();
+
+    /** The time of rendering one frame. */
+    private final Histogram render = new Histogram();
+
+    /** The time from pressing a key until the tetromino moved. */
+    private final Histogram input = new Histogram();
+
+    /** The number of spawned tetrominos. */
+    private volatile long pieces;
+
+    /** The number of removed lines. */
+    private volatile long lines;
+
+    /** The number of frames, that were not rendered. */
+    private volatile long skippedFrames;
+
+    /** The time spent loading in milliseconds. */
+    private volatile long loadTime;
+
+    /** The time until the game was ready in milliseconds. */
+    private volatile long startupTime;
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Returns the time of one update of the game.
+     *
+     * @return The histogram
+     */
+    public Histogram getUpdate() {
+        return update;
+    }
+
+    /**
+     * Returns the time of saving a tetromino inside the field.
+     *
+     * @return The histogram
+     */
+    public Histogram getSave() {
+        return save;
+    }
+
+    /**
+     * Returns the time of checking and removing full rows.
+     *
+     * @return The histogram
+     */
+    public Histogram getCheckRows() {
+        return checkRows;
+    }
+
+    /**
+     * Returns the time of rendering one frame.
+     *
+     * @return The histogram
+     */
+    public Histogram getRender() {
+        return render;
+    }
+
+    /**
+     * Returns the time from pressing a key until the tetromino moved.
+     *
+     * @return The histogram
+     */
+    public Histogram getInput() {
+        return input;
+    }
+
+    /**
+     * Counts a spawned tetromino. Only one thread may count.
+     */
+    public void countPiece() {
+        pieces = pieces + 1;
+    }
+
+    /**
+     * Counts removed lines. Only one thread may count.
+     *
+     * @param cleared The number of lines
+     */
+    public void countLines(int cleared) {
+        if (cleared > 0) lines = lines + cleared;
+    }
+
+    /**
+     * Counts a frame, that was not rendered, because nothing changed. Only
+     * one thread may count.
+     */
+    public void countSkippedFrame() {
+        skippedFrames = skippedFrames + 1;
+    }
+
+    /**
+     * Sets the times of starting the game.
+     *
+     * @param load    The time spent loading in milliseconds
+     * @param startup The time from the start of the JVM until the game was
+     *                ready in milliseconds
+     */
+    public void setStartup(long load, long startup) {
+        loadTime = load;
+        startupTime = startup;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getPieces() {
+        return pieces;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLines() {
+        return lines;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getSkippedFrames() {
+        return skippedFrames;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getGcCount() {
+        long n = 0;
+        for (GarbageCollectorMXBean gc
+                : ManagementFactory.getGarbageCollectorMXBeans())
+            n += Math.max(0, gc.getCollectionCount());
+        return n;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getGcTime() {
+        long n = 0;
+        for (GarbageCollectorMXBean gc
+                : ManagementFactory.getGarbageCollectorMXBeans())
+            n += Math.max(0, gc.getCollectionTime());
+        return n;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getLoadTime() {
+        return loadTime;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public long getStartupTime() {
+        return startupTime;
+    }
+
+    /**
+     * Registers the counters and all histograms at the platform's
+     * MBeanServer.
+     *
+     * @throws JMException If the registration failed
+     */
+    public void register() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.registerMBean(this, name("Metrics", null));
+        server.registerMBean(update, name("Latency", "update"));
+        server.registerMBean(save, name("Latency", "save"));
+        server.registerMBean(checkRows, name("Latency", "checkRows"));
+        server.registerMBean(render, name("Latency", "render"));
+        server.registerMBean(input, name("Latency", "input"));
+    }
+
+    /**
+     * Removes everything registered by {@link #register()}.
+     *
+     * @throws JMException If the removal failed
+     */
+    public void unregister() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        server.unregisterMBean(name("Metrics", null));
+        server.unregisterMBean(name("Latency", "update"));
+        server.unregisterMBean(name("Latency", "save"));
+        server.unregisterMBean(name("Latency", "checkRows"));
+        server.unregisterMBean(name("Latency", "render"));
+        server.unregisterMBean(name("Latency", "input"));
+    }
+
+    /**
+     * Lists all metrics as plain text with one metric per line. Latencies
+     * are given in microseconds.
+     *
+     * @return The text
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("# stage count p50 p99 max\n");
+        append(sb, "update", update);
+        append(sb, "save", save);
+        append(sb, "checkRows", checkRows);
+        append(sb, "render", render);
+        append(sb, "input", input);
+        sb.append("pieces ").append(pieces).append('\n');
+        sb.append("lines ").append(lines).append('\n');
+        sb.append("frames.skipped ").append(skippedFrames).append('\n');
+        sb.append("gc.count ").append(getGcCount()).append('\n');
+        sb.append("gc.time ").append(getGcTime()).append('\n');
+        sb.append("load.time ").append(loadTime).append('\n');
+        sb.append("startup.time ").append(startupTime).append('\n');
+        return sb.toString();
+    }
+
+    /**
+     * Appends one histogram as a line of text.
+     *
+     * @param sb        The text
+     * @param stage     The name of the stage
+     * @param histogram The histogram
+     */
+    private static void append(StringBuilder sb, String stage,
+            Histogram histogram) {
+        sb.append(stage).append(' ').append(histogram.getCount());
+        sb.append(' ').append(histogram.getP50());
+        sb.append(' ').append(histogram.getP99());
+        sb.append(' ').append(histogram.getMax()).append('\n');
+    }
+
+    /**
+     * Creates a name inside the domain.
+     *
+     * @param type The type
+     * @param name The name or null
+     * @return The name
+     * @throws JMException If the name is malformed
+     */
+    private static ObjectName name(String type, String name)
+            throws JMException {
+        return new ObjectName(DOMAIN + ":type=" + type
+                + (name == null ? "" : ",name=" + name));
+    }
+
+}
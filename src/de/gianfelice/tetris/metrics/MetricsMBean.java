@@ -0,0 +1,72 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.metrics;
+
+// --------------------------------- Import(s) ---------------------------------
+/**
+ * The management-interface of the {@link Metrics}, which holds the counters.
+ * The latencies are registered as {@link HistogramMBean}s of their own.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public interface MetricsMBean {
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Returns the number of spawned tetrominos.
+     *
+     * @return The number of tetrominos
+     */
+    long getPieces();
+
+    /**
+     * Returns the number of removed lines.
+     *
+     * @return The number of lines
+     */
+    long getLines();
+
+    /**
+     * Returns the number of frames, that were not rendered, because nothing
+     * changed.
+     *
+     * @return The number of frames
+     */
+    long getSkippedFrames();
+
+    /**
+     * Returns the number of garbage collections since the start of the JVM.
+     *
+     * @return The number of collections
+     */
+    long getGcCount();
+
+    /**
+     * Returns the time spent in garbage collections since the start of the
+     * JVM.
+     *
+     * @return The time in milliseconds
+     */
+    long getGcTime();
+
+    /**
+     * Returns the time spent loading the game in the background.
+     *
+     * @return The time in milliseconds or 0, if the game is still loading
+     */
+    long getLoadTime();
+
+    /**
+     * Returns the time from the start of the JVM until the game was ready.
+     *
+     * @return The time in milliseconds or 0, if the game is still loading
+     */
+    long getStartupTime();
+
+}
@@ -0,0 +1,83 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.metrics;
+
+// --------------------------------- Import(s) ---------------------------------
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Serves the {@link Metrics} as plain text under {@code /metrics} on the
+ * loopback-interface. The text is only built, when it is requested.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class MetricsServer implements HttpHandler {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The metrics to serve. */
+    private final Metrics metrics;
+
+    /** The underlying server. */
+    private final HttpServer server;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates and starts the server.
+     *
+     * @param metrics The metrics to serve
+     * @param port    The port or 0 to choose a free one
+     * @throws IOException If the port could not be bound
+     */
+    public MetricsServer(Metrics metrics, int port) throws IOException {
+        this.metrics = metrics;
+        server = HttpServer.create(new InetSocketAddress(
+                InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", this);
+        server.start();
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Returns the port, the server listens on.
+     *
+     * @return The port
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        byte[] body = metrics.toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type",
+                "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    /**
+     * Stops the server.
+     */
+    public void stop() {
+        server.stop(0);
+    }
+
+}
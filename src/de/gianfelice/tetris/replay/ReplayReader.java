@@ -0,0 +1,253 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.replay;
+
+// --------------------------------- Import(s) ---------------------------------
+import de.gianfelice.tetris.engine.Action;
+import de.gianfelice.tetris.engine.Board;
+import de.gianfelice.tetris.engine.Generator;
+import de.gianfelice.tetris.engine.RandomGenerator;
+import de.gianfelice.tetris.engine.Shape;
+import de.gianfelice.tetris.engine.SplitRandom;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads a replay written by {@link ReplayWriter} directly from a buffer,
+ * which usually maps the file into memory, so nothing gets copied. All
+ * events are checked once while opening. A replay cut off inside its last
+ * event, e.g. because the game crashed while recording, simply ends before
+ * that event. If it was cut off before the tetromino following its last
+ * lock, the game goes on with random tetrominos.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class ReplayReader {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** All shapes by their ordinal. */
+    private static final Shape[] SHAPES = Shape.values();
+
+    /** All actions by their ordinal. */
+    private static final Action[] ACTIONS = Action.values();
+
+    /** The size of the header in bytes. */
+    private static final int HEADER = 16;
+
+    /** The size of the header of the first version, whose height is a byte. */
+    private static final int HEADER_V1 = 15;
+
+    /** The buffer positioned at the next event. */
+    private final ByteBuffer buf;
+
+    /** The width of the board. */
+    private final int width;
+
+    /** The height of the board. */
+    private final int height;
+
+    /** The seed of the game. */
+    private final long seed;
+
+    /** The position of the first event. */
+    private final int start;
+
+    /** The type of the current event. */
+    private int type;
+
+    /** The time of the current event in milliseconds. */
+    private long time;
+
+    /** The number of tetrominos needed beyond the recorded ones. */
+    private int missing;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Reads the header of a replay and checks its events.
+     *
+     * @param buf The buffer holding the replay
+     * @throws IOException If the buffer holds no replay or a broken event
+     */
+    public ReplayReader(ByteBuffer buf) throws IOException {
+        this.buf = buf;
+        if (buf.remaining() < HEADER_V1 || buf.getInt() != ReplayWriter.MAGIC)
+            throw new IOException("Not a replay!");
+        int version = buf.get();
+        if (version < 1 || version > ReplayWriter.VERSION)
+            throw new IOException("Unknown version of the replay!");
+        // The magic and the version have already been read
+        if (version > 1 && buf.remaining() < HEADER - 5)
+            throw new IOException("Not a replay!");
+        width = buf.get() & 0xFF;
+        height = version == 1 ? buf.get() & 0xFF : buf.getShort();
+        seed = buf.getLong();
+        if (width < 4 || width > Board.MAX_WIDTH || height < 4)
+            throw new IOException("Invalid size of the replay!");
+        start = buf.position();
+        buf.limit(scan(buf.duplicate()));
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Maps a file into memory and reads its header.
+     *
+     * @param file The file holding the replay
+     * @return The reader
+     * @throws IOException If the file could not be read or holds no replay
+     */
+    public static ReplayReader open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            return new ReplayReader(ch.map(MapMode.READ_ONLY, 0, ch.size()));
+        }
+    }
+
+    /**
+     * Returns the width of the board.
+     *
+     * @return The width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the board.
+     *
+     * @return The height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the seed of the game.
+     *
+     * @return The seed
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Moves to the next event.
+     *
+     * @return Whether there is another event
+     */
+    public boolean next() {
+        if (!buf.hasRemaining()) return false;
+        type = buf.get() & 0xFF;
+        long delta = 0;
+        for (int shift = 0;; shift += 7) {
+            int b = buf.get();
+            delta |= (long) (b & 0x7F) << shift;
+            if (b >= 0) break;
+        }
+        time += delta;
+        return true;
+    }
+
+    /**
+     * Returns the time of the current event.
+     *
+     * @return The time of the game in milliseconds
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * Returns, whether the current event is a generated tetromino.
+     *
+     * @return Whether the event is a tetromino
+     */
+    public boolean isPiece() {
+        return (type & 7) == ReplayWriter.PIECE;
+    }
+
+    /**
+     * Returns the generated tetromino of the current event.
+     *
+     * @return The shape of the tetromino
+     */
+    public Shape getShape() {
+        return SHAPES[type >>> 3];
+    }
+
+    /**
+     * Returns the action of the current event.
+     *
+     * @return The action
+     */
+    public Action getAction() {
+        return ACTIONS[type & 7];
+    }
+
+    /**
+     * Returns the number of tetrominos the game needed beyond the recorded
+     * ones, which is 0 for a complete replay.
+     *
+     * @return The number of tetrominos
+     */
+    public int getMissing() {
+        return missing;
+    }
+
+    /**
+     * Creates a generator returning the recorded tetrominos in their order.
+     * It reads the same buffer independently of this reader. After the last
+     * recorded one, random tetrominos are counted as missing.
+     *
+     * @return The generator
+     */
+    public Generator pieces() {
+        final ByteBuffer pieces = buf.duplicate();
+        final Generator random = new RandomGenerator(new SplitRandom(seed));
+        pieces.position(start);
+        return new Generator() {
+            @Override
+            public Shape next() {
+                while (pieces.hasRemaining()) {
+                    int t = pieces.get() & 0xFF;
+                    while (pieces.get() < 0) {}
+                    if ((t & 7) == ReplayWriter.PIECE) return SHAPES[t >>> 3];
+                }
+                missing++;
+                return random.next();
+            }
+        };
+    }
+
+    /**
+     * Checks all events and finds the end of the last complete one.
+     *
+     * @param events The buffer positioned at the first event
+     * @return The position after the last complete event
+     * @throws IOException If an event has an unknown type
+     */
+    private static int scan(ByteBuffer events) throws IOException {
+        int end = events.position();
+        while (events.hasRemaining()) {
+            int t = events.get() & 0xFF;
+            if ((t & 7) == ReplayWriter.PIECE ? t >>> 3 >= SHAPES.length
+                    : (t & 7) >= ACTIONS.length || t >>> 3 != 0)
+                throw new IOException("Unknown event in the replay!");
+            boolean complete = false;
+            while (events.hasRemaining() && !complete)
+                complete = events.get() >= 0;
+            if (!complete) break;
+            end = events.position();
+        }
+        return end;
+    }
+
+}
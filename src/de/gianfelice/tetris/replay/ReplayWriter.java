@@ -0,0 +1,129 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.replay;
+
+// --------------------------------- Import(s) ---------------------------------
+import de.gianfelice.tetris.engine.Action;
+import de.gianfelice.tetris.engine.Shape;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Records a game as a compact binary stream.
+ * <p>
+ * The stream starts with the magic {@code "TTRP"}, a version byte, the width
+ * of the board as a byte, its height as a short and the seed as a long. The
+ * first version stored the height as a byte. Every event
+ * follows as one byte and the milliseconds since the previous event as an
+ * unsigned varint, so most events need two bytes. The lower three bits of
+ * the byte hold the ordinal of the {@link Action} or {@link #PIECE} for a
+ * generated tetromino, whose shape is stored in the upper bits.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class ReplayWriter implements Closeable {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The magic number at the start of every replay. */
+    static final int MAGIC = 0x54545250;
+
+    /** The version of the format. */
+    static final int VERSION = 2;
+
+    /** The type of an event for a generated tetromino. */
+    static final int PIECE = 7;
+
+    /** The stream to write to. */
+    private final DataOutputStream out;
+
+    /** The time of the last event in milliseconds. */
+    private long last;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Starts a replay by writing its header.
+     *
+     * @param out    The stream to write to
+     * @param width  The width of the board
+     * @param height The height of the board
+     * @param seed   The seed of the game
+     * @throws IOException If the stream could not be written
+     */
+    public ReplayWriter(OutputStream out, int width, int height, long seed)
+            throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.out.writeInt(MAGIC);
+        this.out.writeByte(VERSION);
+        this.out.writeByte(width);
+        this.out.writeShort(height);
+        this.out.writeLong(seed);
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Records a generated tetromino.
+     *
+     * @param shape The shape of the tetromino
+     * @param time  The time of the game in milliseconds
+     * @throws IOException If the stream could not be written
+     */
+    public void piece(Shape shape, long time) throws IOException {
+        write(PIECE | shape.ordinal() << 3, time);
+    }
+
+    /**
+     * Records an action.
+     *
+     * @param action The action
+     * @param time   The time of the game in milliseconds
+     * @throws IOException If the stream could not be written
+     */
+    public void action(Action action, long time) throws IOException {
+        write(action.ordinal(), time);
+    }
+
+    /**
+     * Writes all buffered events.
+     *
+     * @throws IOException If the stream could not be written
+     */
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * Writes an event.
+     *
+     * @param type The type and the payload of the event
+     * @param time The time of the game in milliseconds
+     * @throws IOException If the stream could not be written
+     */
+    private void write(int type, long time) throws IOException {
+        long delta = Math.max(0, time - last);
+        last += delta;
+        out.writeByte(type);
+        while (delta >= 0x80) {
+            out.writeByte((int) (delta & 0x7F) | 0x80);
+            delta >>>= 7;
+        }
+        out.writeByte((int) delta);
+    }
+
+}
@@ -0,0 +1,64 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.replay;
+
+// --------------------------------- Import(s) ---------------------------------
+import de.gianfelice.tetris.engine.Game;
+import java.io.IOException;
+import java.nio.file.Paths;
+
+/**
+ * Simulates recorded games without any display as fast as possible.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public final class Replayer {
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * No instances needed.
+     */
+    private Replayer() {}
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Simulates the given replays and prints their results.
+     *
+     * @param args The files holding the replays
+     * @throws IOException If a file could not be read
+     */
+    public static void main(String[] args) throws IOException {
+        for (String file : args) {
+            long start = System.nanoTime();
+            ReplayReader replay = ReplayReader.open(Paths.get(file));
+            Game game = simulate(replay);
+            long nanos = System.nanoTime() - start;
+            System.out.printf("%s: %d pieces, %d lines, score %d%s%s"
+                    + " (%.3f ms)%n", file, game.getPieces(), game.getLines(),
+                    game.getScore(), game.isGameOver() ? ", game over" : "",
+                    replay.getMissing() > 0 ? ", cut off" : "", nanos / 1e6);
+        }
+    }
+
+    /**
+     * Simulates a recorded game.
+     *
+     * @param replay The replay positioned before the first event
+     * @return The game after the last event
+     */
+    public static Game simulate(ReplayReader replay) {
+        Game game = new Game(replay.getWidth(), replay.getHeight(),
+                replay.pieces());
+        while (replay.next()) {
+            if (!replay.isPiece()) replay.getAction().apply(game);
+        }
+        return game;
+    }
+
+}
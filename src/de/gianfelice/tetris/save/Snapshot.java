@@ -0,0 +1,431 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.save;
+
+// --------------------------------- Import(s) ---------------------------------
+import com.jme3.math.ColorRGBA;
+import de.gianfelice.tetris.engine.Board;
+import de.gianfelice.tetris.engine.Shape;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The complete state of a game at one moment, so that it can be resumed
+ * later or on another machine.
+ * <p>
+ * A snapshot is stored in a compact binary format: It starts with the magic
+ * {@code "TTSN"}, a version byte, the width of the field as a byte, its height
+ * and the number of stored rows as shorts. The colors of the field follow as
+ * a byte with their number and four floats each, then one byte per cell from
+ * bottom to top holding 0 for an empty cell or the index of its color plus
+ * one. The current tetromino follows as the ordinal of its shape, its
+ * rotation state and its column as bytes and its row as a short, then the
+ * number of tetrominos in the preview and their ordinals as bytes. The state
+ * of the generator is stored as a byte telling whether a bag is used, the
+ * length of the state as a byte and the state itself. The timers come last as
+ * a float, a double and a long.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class Snapshot {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The magic number at the start of every snapshot. */
+    static final int MAGIC = 0x5454534E;
+
+    /** The version of the format. */
+    static final int VERSION = 1;
+
+    /** All shapes by their ordinal. */
+    private static final Shape[] SHAPES = Shape.values();
+
+    /** The width of the field. */
+    private final int width;
+
+    /** The height of the field. */
+    private final int height;
+
+    /** The colors of the cells from bottom to top or null, if empty. */
+    private ColorRGBA[] cells = new ColorRGBA[0];
+
+    /** The shape of the current tetromino. */
+    private Shape current;
+
+    /** The rotation state of the current tetromino. */
+    private int state;
+
+    /** The column of the current tetromino. */
+    private int x;
+
+    /** The row of the current tetromino. */
+    private int y;
+
+    /** The shapes of the preview. */
+    private Shape[] preview = new Shape[0];
+
+    /** Whether the tetrominos are dealt from a bag. */
+    private boolean bag;
+
+    /** The state of the generator or null, if it is not resumable. */
+    private byte[] generator;
+
+    /** The passed time since the last tick in seconds. */
+    private float time;
+
+    /** The passed time since the start in seconds. */
+    private double clock;
+
+    /** The number of tetrominos spawned so far. */
+    private long spawned;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates an empty snapshot of a field.
+     *
+     * @param width  The width of the field
+     * @param height The height of the field
+     */
+    public Snapshot(int width, int height) {
+        this.width = width;
+        this.height = height;
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Reads a snapshot from a buffer.
+     *
+     * @param buf The buffer holding the snapshot
+     * @return The snapshot
+     * @throws IOException If the buffer holds no valid snapshot
+     */
+    public static Snapshot read(ByteBuffer buf) throws IOException {
+        try {
+            if (buf.getInt() != MAGIC) throw new IOException("Not a snapshot!");
+            if (buf.get() != VERSION)
+                throw new IOException("Unknown version of the snapshot!");
+            Snapshot s = new Snapshot(buf.get() & 0xFF, buf.getShort());
+            if (s.width < 4 || s.width > Board.MAX_WIDTH || s.height < 4)
+                throw new IOException("Invalid size of the snapshot!");
+            int rows = buf.getShort();
+            if (rows < 0 || rows > s.height)
+                throw new IOException("Too many rows in the snapshot!");
+
+            ColorRGBA[] colors = new ColorRGBA[buf.get() & 0xFF];
+            for (int i = 0; i < colors.length; i++) {
+                colors[i] = new ColorRGBA(buf.getFloat(), buf.getFloat(),
+                        buf.getFloat(), buf.getFloat());
+            }
+            s.cells = new ColorRGBA[s.width * rows];
+            for (int i = 0; i < s.cells.length; i++) {
+                int c = buf.get() & 0xFF;
+                if (c > 0) s.cells[i] = colors[c - 1];
+            }
+
+            s.current = SHAPES[buf.get()];
+            s.state = buf.get();
+            s.x = buf.get();
+            s.y = buf.getShort();
+            if (s.state < 0 || s.state >= s.current.getStates())
+                throw new IOException("Invalid state in the snapshot!");
+            if (s.collides())
+                throw new IOException("Invalid position in the snapshot!");
+            s.preview = new Shape[buf.get()];
+            for (int i = 0; i < s.preview.length; i++)
+                s.preview[i] = SHAPES[buf.get()];
+
+            s.bag = buf.get() != 0;
+            int length = buf.get() & 0xFF;
+            if (length > 0) {
+                s.generator = new byte[length];
+                buf.get(s.generator);
+            }
+            s.time = buf.getFloat();
+            s.clock = buf.getDouble();
+            s.spawned = buf.getLong();
+            return s;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException
+                | NegativeArraySizeException e) {
+            throw new IOException("Broken snapshot!", e);
+        }
+    }
+
+    /**
+     * Reads a snapshot from a file.
+     *
+     * @param file The file holding the snapshot
+     * @return The snapshot
+     * @throws IOException If the file could not be read or holds no valid
+     *                     snapshot
+     */
+    public static Snapshot open(Path file) throws IOException {
+        return read(ByteBuffer.wrap(Files.readAllBytes(file)));
+    }
+
+    /**
+     * Writes the snapshot into a buffer, which needs {@link #size()} bytes
+     * left.
+     *
+     * @param buf The buffer to write to
+     */
+    public void write(ByteBuffer buf) {
+        List<ColorRGBA> colors = colors();
+        buf.putInt(MAGIC);
+        buf.put((byte) VERSION);
+        buf.put((byte) width);
+        buf.putShort((short) height);
+        buf.putShort((short) (cells.length / width));
+
+        buf.put((byte) colors.size());
+        for (ColorRGBA c : colors)
+            buf.putFloat(c.r).putFloat(c.g).putFloat(c.b).putFloat(c.a);
+        for (ColorRGBA c : cells)
+            buf.put((byte) (c == null ? 0 : colors.indexOf(c) + 1));
+
+        buf.put((byte) current.ordinal());
+        buf.put((byte) state);
+        buf.put((byte) x);
+        buf.putShort((short) y);
+        buf.put((byte) preview.length);
+        for (Shape shape : preview) buf.put((byte) shape.ordinal());
+
+        buf.put((byte) (bag ? 1 : 0));
+        if (generator == null) {
+            buf.put((byte) 0);
+        } else {
+            buf.put((byte) generator.length);
+            buf.put(generator);
+        }
+        buf.putFloat(time);
+        buf.putDouble(clock);
+        buf.putLong(spawned);
+    }
+
+    /**
+     * Returns the number of bytes needed by {@link #write(ByteBuffer)}.
+     *
+     * @return The size in bytes
+     */
+    public int size() {
+        return 10 + 1 + colors().size() * 16 + cells.length + 5
+                + 1 + preview.length + 2
+                + (generator == null ? 0 : generator.length) + 4 + 8 + 8;
+    }
+
+    /**
+     * Checks, whether the current tetromino leaves the board or overlaps any
+     * box, so that the game could not go on with it.
+     *
+     * @return Whether the tetromino collides
+     */
+    private boolean collides() {
+        Board board = new Board(width, height);
+        for (int i = 0; i < cells.length; i++) {
+            if (cells[i] != null) board.place(1, i % width, i / width);
+        }
+        return board.collides(current.getMask(state), x, y);
+    }
+
+    /**
+     * Collects the different colors of the cells.
+     *
+     * @return The colors
+     * @throws IllegalStateException If there are too many colors to store
+     */
+    private List<ColorRGBA> colors() {
+        List<ColorRGBA> colors = new ArrayList<>();
+        for (ColorRGBA c : cells) {
+            if (c != null && !colors.contains(c)) colors.add(c);
+        }
+        if (colors.size() > 255)
+            throw new IllegalStateException("Too many colors!");
+        return colors;
+    }
+
+    /**
+     * Returns the width of the field.
+     *
+     * @return The width
+     */
+    public int getWidth() {
+        return width;
+    }
+
+    /**
+     * Returns the height of the field.
+     *
+     * @return The height
+     */
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Returns the colors of the cells from bottom to top. All rows above the
+     * given ones are empty.
+     *
+     * @return The colors or null for empty cells
+     */
+    public ColorRGBA[] getCells() {
+        return cells;
+    }
+
+    /**
+     * Sets the colors of the cells from bottom to top. Only the rows up to
+     * the highest box have to be given.
+     *
+     * @param cells The colors or null for empty cells
+     */
+    public void setCells(ColorRGBA[] cells) {
+        this.cells = cells;
+    }
+
+    /**
+     * Returns the shape of the current tetromino.
+     *
+     * @return The shape
+     */
+    public Shape getCurrent() {
+        return current;
+    }
+
+    /**
+     * Returns the rotation state of the current tetromino.
+     *
+     * @return The state
+     */
+    public int getState() {
+        return state;
+    }
+
+    /**
+     * Returns the column of the current tetromino.
+     *
+     * @return The x-coordinate
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Returns the row of the current tetromino.
+     *
+     * @return The y-coordinate
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Sets the current tetromino.
+     *
+     * @param current The shape
+     * @param state   The rotation state
+     * @param x       The x-coordinate
+     * @param y       The y-coordinate
+     */
+    public void setCurrent(Shape current, int state, int x, int y) {
+        this.current = current;
+        this.state = state;
+        this.x = x;
+        this.y = y;
+    }
+
+    /**
+     * Returns the shapes of the preview, where the first one is applied next.
+     *
+     * @return The shapes
+     */
+    public Shape[] getPreview() {
+        return preview;
+    }
+
+    /**
+     * Sets the shapes of the preview.
+     *
+     * @param preview The shapes, where the first one is applied next
+     */
+    public void setPreview(Shape[] preview) {
+        this.preview = preview;
+    }
+
+    /**
+     * Returns, whether the tetrominos are dealt from a bag.
+     *
+     * @return Whether a bag is used
+     */
+    public boolean isBag() {
+        return bag;
+    }
+
+    /**
+     * Returns the state of the generator.
+     *
+     * @return The state or null, if none was saved
+     */
+    public byte[] getGenerator() {
+        return generator;
+    }
+
+    /**
+     * Sets the generator.
+     *
+     * @param bag       Whether the tetrominos are dealt from a bag
+     * @param generator The state of the generator or null, if there is none
+     */
+    public void setGenerator(boolean bag, byte[] generator) {
+        this.bag = bag;
+        this.generator = generator;
+    }
+
+    /**
+     * Returns the passed time since the last tick.
+     *
+     * @return The time in seconds
+     */
+    public float getTime() {
+        return time;
+    }
+
+    /**
+     * Returns the passed time since the start of the game.
+     *
+     * @return The time in seconds
+     */
+    public double getClock() {
+        return clock;
+    }
+
+    /**
+     * Returns the number of tetrominos spawned so far.
+     *
+     * @return The number of tetrominos
+     */
+    public long getSpawned() {
+        return spawned;
+    }
+
+    /**
+     * Sets the timers and counters.
+     *
+     * @param time    The passed time since the last tick in seconds
+     * @param clock   The passed time since the start in seconds
+     * @param spawned The number of tetrominos spawned so far
+     */
+    public void setTimes(float time, double clock, long spawned) {
+        this.time = time;
+        this.clock = clock;
+        this.spawned = spawned;
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.save;
+
+// --------------------------------- Import(s) ---------------------------------
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Writes snapshots to a file on a background thread, so that the render
+ * thread only hands them over and never waits for the disk. If snapshots
+ * arrive faster than they are written, only the latest one is written.
+ * <p>
+ * Each snapshot is written to a temporary file first, which then replaces
+ * the previous one at once, so a crash while writing never leaves a broken
+ * snapshot behind.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class SnapshotWriter implements Closeable {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The logger of the snapshots. */
+    private static final Logger LOG =
+            Logger.getLogger(SnapshotWriter.class.getName());
+
+    /** The time in seconds to wait for the last snapshot when closing. */
+    private static final int TIMEOUT = 5;
+
+    /** The file to write to. */
+    private final Path file;
+
+    /** The file written before it replaces the snapshot. */
+    private final Path temp;
+
+    /** The thread writing the snapshots. */
+    private final ExecutorService io;
+
+    /** The snapshot waiting to be written or null, if there is none. */
+    private final AtomicReference<Snapshot> pending = new AtomicReference<>();
+
+    /** Writes the pending snapshot. */
+    private final Runnable flush = new Runnable() {
+        @Override
+        public void run() {
+            Snapshot snapshot = pending.getAndSet(null);
+            if (snapshot != null) write(snapshot);
+        }
+    };
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates the writer and its thread.
+     *
+     * @param file The file to write to
+     */
+    public SnapshotWriter(Path file) {
+        this.file = file;
+        temp = file.resolveSibling(file.getFileName() + ".tmp");
+        io = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable r) {
+                Thread thread = new Thread(r, "Snapshot");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Writes a snapshot in the background. A snapshot, that is still
+     * waiting, is replaced by it.
+     *
+     * @param snapshot The snapshot
+     */
+    public void save(Snapshot snapshot) {
+        if (pending.getAndSet(snapshot) == null) io.execute(flush);
+    }
+
+    /**
+     * Deletes the file in the background, e.g. because the game is over and
+     * cannot be resumed. A snapshot, that is still waiting, is dropped.
+     */
+    public void discard() {
+        pending.set(null);
+        io.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (IOException e) {
+                    LOG.log(Level.WARNING, "Could not delete the snapshot", e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Waits until the last snapshot is written and stops the thread.
+     */
+    @Override
+    public void close() {
+        io.shutdown();
+        try {
+            if (!io.awaitTermination(TIMEOUT, TimeUnit.SECONDS))
+                LOG.warning("The last snapshot was not written in time");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Writes a snapshot to the temporary file and moves it over the
+     * previous one.
+     *
+     * @param snapshot The snapshot
+     */
+    private void write(Snapshot snapshot) {
+        ByteBuffer buf = ByteBuffer.allocate(snapshot.size());
+        snapshot.write(buf);
+        buf.flip();
+        try {
+            try (FileChannel ch = FileChannel.open(temp,
+                    StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                while (buf.hasRemaining()) ch.write(buf);
+                ch.force(false);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.log(Level.WARNING, "Could not write the snapshot", e);
+        }
+    }
+
+}
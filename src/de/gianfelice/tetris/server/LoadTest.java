@@ -0,0 +1,264 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.server;
+
+// --------------------------------- Import(s) ---------------------------------
+import de.gianfelice.tetris.engine.Action;
+import de.gianfelice.tetris.engine.Board;
+import de.gianfelice.tetris.metrics.Histogram;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Simulates many clients on one thread and measures, whether the server
+ * keeps its tick rate. Every client sends random actions a few times per
+ * second and counts the received statuses. A client, whose game is over,
+ * connects again. Without a host, a server is started inside the same JVM
+ * and connected over the loopback-interface.
+ * <p>
+ * The test fails, if less than {@value #REQUIRED} percent of the expected
+ * statuses arrived during the measurement.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class LoadTest {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The percentage of expected statuses, that must arrive. */
+    private static final int REQUIRED = 95;
+
+    /** The time between two actions of a client in nanoseconds. */
+    private static final long ACTION = 250000000;
+
+    /** The time to connect all clients before measuring in nanoseconds. */
+    private static final long WARMUP = 2000000000;
+
+    /** The actions a client sends, where dropping is rare. */
+    private static final Action[] ACTIONS = {Action.ROTATE, Action.LEFT,
+        Action.RIGHT, Action.ROTATE, Action.LEFT, Action.RIGHT, Action.LEFT,
+        Action.DROP};
+
+    /** The selector waiting for all clients. */
+    private final Selector selector;
+
+    /** The address of the server. */
+    private final InetSocketAddress address;
+
+    /** All connected clients. */
+    private final List<Client> clients = new ArrayList<>();
+
+    /** The source of the actions. */
+    private final Random random = new Random(42);
+
+    /** The buffer for sending one action. */
+    private final ByteBuffer action = ByteBuffer.allocate(1);
+
+    /** Whether the statuses are counted. */
+    private boolean measuring;
+
+    /** The number of received statuses during the measurement. */
+    private long statuses;
+
+    /** The number of sent actions during the measurement. */
+    private long actions;
+
+    /** The number of finished games during the measurement. */
+    private long games;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates the test.
+     *
+     * @param address The address of the server
+     * @throws IOException If the selector could not be opened
+     */
+    public LoadTest(InetSocketAddress address) throws IOException {
+        this.address = address;
+        selector = Selector.open();
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Runs the test from the command-line.
+     *
+     * @param args {@code [clients] [seconds] [threads] [tick in ms]
+     *             [size | host port]}, where the size of the boards of the
+     *             local server is given as {@code <width>x<height>}
+     * @throws IOException If a connection failed
+     */
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int threads = args.length > 2 ? Integer.parseInt(args[2])
+                : Runtime.getRuntime().availableProcessors();
+        long period = (args.length > 3 ? Long.parseLong(args[3]) : 500)
+                * 1000000;
+
+        Server server = null;
+        InetSocketAddress address;
+        if (args.length > 5) {
+            address = new InetSocketAddress(args[4], Integer.parseInt(args[5]));
+        } else {
+            int[] size = args.length > 4 ? Board.parseSize(args[4])
+                    : new int[] {Server.WIDTH, Server.HEIGHT};
+            server = new Server(0, threads, period, size[0], size[1], 42);
+            address = new InetSocketAddress("127.0.0.1", server.getPort());
+        }
+
+        LoadTest test = new LoadTest(address);
+        for (int i = 0; i < count; i++) test.connect();
+        test.run(WARMUP);
+        test.measuring = true;
+        long start = System.nanoTime();
+        test.run(seconds * 1000000000L);
+        double elapsed = (System.nanoTime() - start) / 1e9;
+        test.close();
+
+        double expected = count * elapsed * 1e9 / period;
+        double ratio = test.statuses / expected * 100;
+        System.out.printf("clients    %d over %.1f s%n", count, elapsed);
+        System.out.printf("statuses   %d of %.0f expected (%.1f%%)%n",
+                test.statuses, expected, ratio);
+        System.out.printf("actions    %d (%.0f/s)%n", test.actions,
+                test.actions / elapsed);
+        System.out.printf("games      %d finished%n", test.games);
+        if (server != null) {
+            Histogram ticks = server.getSlowest();
+            System.out.printf("ticks      p50 %.1f us, p99 %.1f us,"
+                    + " max %.1f us%n", ticks.getP50(), ticks.getP99(),
+                    ticks.getMax());
+            server.stop();
+        }
+        if (ratio < REQUIRED) {
+            System.err.println("The server did not keep its tick rate!");
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Connects a new client.
+     *
+     * @throws IOException If the connection failed
+     */
+    private void connect() throws IOException {
+        SocketChannel channel = SocketChannel.open();
+        channel.configureBlocking(false);
+        channel.socket().setTcpNoDelay(true);
+        Client client = new Client(channel);
+        client.next = System.nanoTime() + (long) (random.nextDouble() * ACTION);
+        if (channel.connect(address)) {
+            channel.register(selector, SelectionKey.OP_READ, client);
+        } else channel.register(selector, SelectionKey.OP_CONNECT, client);
+        clients.add(client);
+    }
+
+    /**
+     * Serves all clients for a given time.
+     *
+     * @param nanos The time in nanoseconds
+     * @throws IOException If a connection failed
+     */
+    private void run(long nanos) throws IOException {
+        long end = System.nanoTime() + nanos;
+        for (long now; (now = System.nanoTime()) < end;) {
+            selector.select(10);
+            Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+            while (keys.hasNext()) {
+                SelectionKey key = keys.next();
+                keys.remove();
+                Client client = (Client) key.attachment();
+                if (key.isConnectable()) {
+                    client.channel.finishConnect();
+                    key.interestOps(SelectionKey.OP_READ);
+                } else if (key.isReadable() && !receive(client)) {
+                    client.channel.close();
+                    clients.remove(client);
+                    if (measuring) games++;
+                    connect();
+                }
+            }
+            for (Client client : clients) {
+                if (client.next - now > 0 || !client.channel.isConnected())
+                    continue;
+                client.next = now + ACTION;
+                action.clear();
+                action.put(Protocol.encode(
+                        ACTIONS[random.nextInt(ACTIONS.length)]));
+                action.flip();
+                if (client.channel.write(action) > 0 && measuring) actions++;
+            }
+        }
+    }
+
+    /**
+     * Receives the statuses of a client.
+     *
+     * @param client The client
+     * @return Whether the game goes on
+     * @throws IOException If the connection failed
+     */
+    private boolean receive(Client client) throws IOException {
+        ByteBuffer in = client.in;
+        if (client.channel.read(in) < 0) return false;
+        in.flip();
+        boolean over = false;
+        while (in.remaining() >= Protocol.STATUS_SIZE) {
+            over |= in.get(in.position() + 1) != 0;
+            in.position(in.position() + Protocol.STATUS_SIZE);
+            if (measuring) statuses++;
+        }
+        in.compact();
+        return !over;
+    }
+
+    /**
+     * Closes all clients.
+     *
+     * @throws IOException If the selector could not be closed
+     */
+    private void close() throws IOException {
+        for (Client client : clients) client.channel.close();
+        selector.close();
+    }
+
+    // ---------------------------- Inner Class(es) ----------------------------
+    /**
+     * The state of one simulated client.
+     */
+    private static class Client {
+
+        /** The connection to the server. */
+        private final SocketChannel channel;
+
+        /** The received, but not yet counted bytes. */
+        private final ByteBuffer in = ByteBuffer.allocate(1024);
+
+        /** The time of the next action. */
+        private long next;
+
+        /**
+         * Creates a client.
+         *
+         * @param channel The connection to the server
+         */
+        private Client(SocketChannel channel) {
+            this.channel = channel;
+        }
+
+    }
+
+}
@@ -0,0 +1,85 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.server;
+
+// --------------------------------- Import(s) ---------------------------------
+import de.gianfelice.tetris.engine.Action;
+import java.nio.ByteBuffer;
+
+/**
+ * The messages between the server and its clients. A client sends one byte
+ * per action, which is the ordinal of the {@link Action} and may be anything
+ * but {@link Action#TICK}. After every tick the server answers with a status
+ * of {@value #STATUS_SIZE} bytes:
+ * <pre>
+ * byte  type    STATUS
+ * byte  over    1, if the game is over and the connection is closed
+ * int   pieces  the number of spawned tetrominos
+ * int   lines   the number of removed lines
+ * long  score   the score
+ * </pre>
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public final class Protocol {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The type of a status. */
+    public static final byte STATUS = 1;
+
+    /** The size of a status in bytes. */
+    public static final int STATUS_SIZE = 18;
+
+    /** The actions a client may send by their ordinal. */
+    private static final Action[] ACTIONS = {Action.ROTATE, Action.LEFT,
+        Action.RIGHT, Action.DROP};
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * No instances needed.
+     */
+    private Protocol() {}
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Decodes an action sent by a client.
+     *
+     * @param b The byte
+     * @return The action or null, if the byte is no valid action
+     */
+    public static Action action(byte b) {
+        return b >= 0 && b < ACTIONS.length ? ACTIONS[b] : null;
+    }
+
+    /**
+     * Encodes an action to be sent by a client.
+     *
+     * @param action The action, which must not be {@link Action#TICK}
+     * @return The byte
+     */
+    public static byte encode(Action action) {
+        return (byte) action.ordinal();
+    }
+
+    /**
+     * Writes a status.
+     *
+     * @param out    The buffer with enough space
+     * @param over   Whether the game is over
+     * @param pieces The number of spawned tetrominos
+     * @param lines  The number of removed lines
+     * @param score  The score
+     */
+    public static void status(ByteBuffer out, boolean over, long pieces,
+            long lines, long score) {
+        out.put(STATUS).put((byte) (over ? 1 : 0));
+        out.putInt((int) pieces).putInt((int) lines).putLong(score);
+    }
+
+}
@@ -0,0 +1,181 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.server;
+
+// --------------------------------- Import(s) ---------------------------------
+import de.gianfelice.tetris.engine.Board;
+import de.gianfelice.tetris.metrics.Histogram;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hosts many games without any display. Every client connected by TCP plays
+ * its own game by the {@link Protocol}. The connections are spread over a
+ * fixed number of {@link Worker}s, each serving its sessions with one
+ * non-blocking selector on its own thread, while the server only accepts
+ * new connections.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class Server {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The logger of the server. */
+    private static final Logger LOG = Logger.getLogger(Server.class.getName());
+
+    /** Default width of the boards. */
+    static final int WIDTH = 10;
+
+    /** Default height of the boards. */
+    static final int HEIGHT = 19;
+
+    /** The channel accepting new connections. */
+    private final ServerSocketChannel acceptor;
+
+    /** The workers serving the sessions. */
+    private final Worker[] workers;
+
+    /** The thread accepting new connections. */
+    private final Thread thread;
+
+    /** The worker receiving the next connection. */
+    private int turn;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates and starts a server.
+     *
+     * @param port    The port or 0 to choose a free one
+     * @param threads The number of workers
+     * @param period  The time between two ticks in nanoseconds
+     * @param width   The width of the boards
+     * @param height  The height of the boards
+     * @param seed    The seed for all games
+     * @throws IOException If the port could not be bound
+     */
+    public Server(int port, int threads, long period, int width, int height,
+            long seed) throws IOException {
+        acceptor = ServerSocketChannel.open();
+        acceptor.socket().setReuseAddress(true);
+        acceptor.bind(new InetSocketAddress(port), 1024);
+        workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(period, width, height,
+                    seed + i * 0x9E3779B97F4A7C15L);
+            Thread worker = new Thread(workers[i], "Worker-" + i);
+            worker.setDaemon(true);
+            worker.start();
+        }
+        thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                accept();
+            }
+        }, "Acceptor");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Runs the server from the command-line.
+     *
+     * @param args {@code [port] [threads] [tick in ms] [size]}, where the
+     *             size of the boards is given as {@code <width>x<height>}
+     * @throws IOException          If the port could not be bound
+     * @throws InterruptedException If interrupted while serving
+     */
+    public static void main(String[] args) throws IOException,
+            InterruptedException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 7000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        long tick = args.length > 2 ? Long.parseLong(args[2]) : 500;
+        int[] size = args.length > 3 ? Board.parseSize(args[3])
+                : new int[] {WIDTH, HEIGHT};
+        Server server = new Server(port, threads, tick * 1000000, size[0],
+                size[1], System.nanoTime());
+        LOG.log(Level.INFO, "Serving on port {0}", server.getPort());
+        while (true) {
+            Thread.sleep(10000);
+            Histogram worst = server.getSlowest();
+            LOG.log(Level.INFO, "{0} sessions, tick p99 {1} us, max {2} us",
+                    new Object[] {server.getSessions(), worst.getP99(),
+                    worst.getMax()});
+        }
+    }
+
+    /**
+     * Returns the port, the server listens on.
+     *
+     * @return The port
+     */
+    public int getPort() {
+        return acceptor.socket().getLocalPort();
+    }
+
+    /**
+     * Returns the number of open sessions of all workers.
+     *
+     * @return The number of sessions
+     */
+    public int getSessions() {
+        int n = 0;
+        for (Worker worker : workers) n += worker.getOpen();
+        return n;
+    }
+
+    /**
+     * Returns the time of the ticks of the worker with the slowest tick.
+     *
+     * @return The histogram
+     */
+    public Histogram getSlowest() {
+        Histogram slowest = workers[0].getTicks();
+        for (Worker worker : workers) {
+            if (worker.getTicks().getMax() > slowest.getMax())
+                slowest = worker.getTicks();
+        }
+        return slowest;
+    }
+
+    /**
+     * Stops accepting connections and closes all sessions.
+     */
+    public void stop() {
+        try {
+            acceptor.close();
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "Could not close the acceptor", e);
+        }
+        for (Worker worker : workers) worker.stop();
+    }
+
+    /**
+     * Accepts connections and hands them over to the workers in turn, until
+     * the server is stopped.
+     */
+    private void accept() {
+        while (acceptor.isOpen()) {
+            try {
+                SocketChannel channel = acceptor.accept();
+                workers[turn].add(channel);
+                turn = (turn + 1) % workers.length;
+            } catch (IOException e) {
+                if (acceptor.isOpen())
+                    LOG.log(Level.WARNING, "Could not accept", e);
+            }
+        }
+    }
+
+}
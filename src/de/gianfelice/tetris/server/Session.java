@@ -0,0 +1,177 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.server;
+
+// --------------------------------- Import(s) ---------------------------------
+import de.gianfelice.tetris.engine.Action;
+import de.gianfelice.tetris.engine.Game;
+import de.gianfelice.tetris.engine.Generator;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.SocketChannel;
+
+/**
+ * One connected client playing its own game. The session is only used by
+ * the {@link Worker} owning it, so it needs no synchronization.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+class Session {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The number of statuses, that may wait for a slow client. */
+    private static final int BACKLOG = 64;
+
+    /** The ticks a closing session waits for the client to take the rest. */
+    private static final int LINGER = 10;
+
+    /** The connection to the client. */
+    private final SocketChannel channel;
+
+    /** The game of the client. */
+    private final Game game;
+
+    /** The received, but not yet applied bytes. */
+    private final ByteBuffer in = ByteBuffer.allocate(256);
+
+    /** The bytes waiting to be sent. */
+    private final ByteBuffer out =
+            ByteBuffer.allocate(BACKLOG * Protocol.STATUS_SIZE);
+
+    /** The key of the channel at the selector of the worker. */
+    private SelectionKey key;
+
+    /** Whether the connection is closed after everything has been sent. */
+    private boolean closing;
+
+    /** The ticks since the session began closing. */
+    private int lingered;
+
+    /** The position among the sessions of the worker or -1, if removed. */
+    private int index = -1;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates a session.
+     *
+     * @param channel   The connection to the client
+     * @param width     The width of the board
+     * @param height    The height of the board
+     * @param generator The source of the tetrominos
+     */
+    Session(SocketChannel channel, int width, int height,
+            Generator generator) {
+        this.channel = channel;
+        game = new Game(width, height, generator);
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Sets the key of the channel.
+     *
+     * @param key The key
+     */
+    void setKey(SelectionKey key) {
+        this.key = key;
+    }
+
+    /**
+     * Returns the position among the sessions of the worker.
+     *
+     * @return The index or -1, if the session has been removed
+     */
+    int getIndex() {
+        return index;
+    }
+
+    /**
+     * Sets the position among the sessions of the worker.
+     *
+     * @param index The index or -1, if the session has been removed
+     */
+    void setIndex(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Returns the game of the client.
+     *
+     * @return The game
+     */
+    Game getGame() {
+        return game;
+    }
+
+    /**
+     * Reads and applies the actions of the client.
+     *
+     * @return Whether the session is still open
+     * @throws IOException If the connection failed
+     */
+    boolean read() throws IOException {
+        if (channel.read(in) < 0) return false;
+        in.flip();
+        while (in.hasRemaining()) {
+            Action action = Protocol.action(in.get());
+            if (action == null) return false;
+            if (!closing) action.apply(game);
+        }
+        in.clear();
+        return true;
+    }
+
+    /**
+     * Lets the tetromino fall and sends the status. If the game is over, the
+     * session is closed after sending it, but after a few ticks at the
+     * latest, if the client does not receive it.
+     *
+     * @return Whether the session is still open
+     * @throws IOException If the connection failed
+     */
+    boolean tick() throws IOException {
+        if (closing) return ++lingered < LINGER;
+        game.tick();
+        closing = game.isGameOver();
+        if (out.remaining() < Protocol.STATUS_SIZE) return false;
+        Protocol.status(out, closing, game.getPieces(), game.getLines(),
+                game.getScore());
+        return write();
+    }
+
+    /**
+     * Sends as much as possible without blocking. The worker is asked to
+     * call again, when the client is able to receive the rest.
+     *
+     * @return Whether the session is still open
+     * @throws IOException If the connection failed
+     */
+    boolean write() throws IOException {
+        out.flip();
+        channel.write(out);
+        out.compact();
+        boolean pending = out.position() > 0;
+        if (!pending && closing) return false;
+        int ops = SelectionKey.OP_READ | (pending ? SelectionKey.OP_WRITE : 0);
+        if (key.interestOps() != ops) key.interestOps(ops);
+        return true;
+    }
+
+    /**
+     * Closes the connection.
+     */
+    void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // Nothing left to do
+        }
+    }
+
+}
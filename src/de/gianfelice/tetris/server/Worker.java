@@ -0,0 +1,268 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.server;
+
+// --------------------------------- Import(s) ---------------------------------
+import de.gianfelice.tetris.engine.RandomGenerator;
+import de.gianfelice.tetris.engine.SplitRandom;
+import de.gianfelice.tetris.metrics.Histogram;
+import java.io.IOException;
+import java.nio.channels.CancelledKeyException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Serves many sessions on one thread. The actions of the clients are applied
+ * as soon as they arrive, and all games tick together at a fixed rate, which
+ * replaces the update-loop of the application. The time of every tick is
+ * recorded, so a worker running late can be seen.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+class Worker implements Runnable {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The logger of the worker. */
+    private static final Logger LOG = Logger.getLogger(Worker.class.getName());
+
+    /** The selector waiting for all connections of the worker. */
+    private final Selector selector;
+
+    /** The connections accepted, but not yet registered. */
+    private final Queue<SocketChannel> accepted =
+            new ConcurrentLinkedQueue<>();
+
+    /** The sessions of the worker. */
+    private final List<Session> sessions = new ArrayList<>();
+
+    /** The time of each tick of all sessions. */
+    private final Histogram ticks = new Histogram();
+
+    /** The seeds of the games. */
+    private final SplitRandom seeds;
+
+    /** The time between two ticks in nanoseconds. */
+    private final long period;
+
+    /** The width of the boards. */
+    private final int width;
+
+    /** The height of the boards. */
+    private final int height;
+
+    /** The number of open sessions, which is read by other threads. */
+    private volatile int open;
+
+    /** Whether the worker should keep running. */
+    private volatile boolean running = true;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates a worker.
+     *
+     * @param period The time between two ticks in nanoseconds
+     * @param width  The width of the boards
+     * @param height The height of the boards
+     * @param seed   The seed for the games of the worker
+     * @throws IOException If the selector could not be opened
+     */
+    Worker(long period, int width, int height, long seed) throws IOException {
+        this.period = period;
+        this.width = width;
+        this.height = height;
+        seeds = new SplitRandom(seed);
+        selector = Selector.open();
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Hands a new connection over to the worker.
+     *
+     * @param channel The connection
+     */
+    void add(SocketChannel channel) {
+        accepted.add(channel);
+        selector.wakeup();
+        if (!running) closeAccepted();
+    }
+
+    /**
+     * Returns the number of open sessions.
+     *
+     * @return The number of sessions
+     */
+    int getOpen() {
+        return open;
+    }
+
+    /**
+     * Returns the time of each tick of all sessions.
+     *
+     * @return The histogram
+     */
+    Histogram getTicks() {
+        return ticks;
+    }
+
+    /**
+     * Stops the worker and closes all sessions.
+     */
+    void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run() {
+        long next = System.nanoTime() + period;
+        try {
+            while (running) {
+                long wait = (next - System.nanoTime()) / 1000000;
+                if (wait > 0) selector.select(wait);
+                else selector.selectNow();
+                register();
+                handle();
+
+                long now = System.nanoTime();
+                if (now - next < 0) continue;
+                for (int i = sessions.size() - 1; i >= 0; i--) {
+                    if (!tick(sessions.get(i))) remove(i);
+                }
+                ticks.record(System.nanoTime() - now);
+
+                // Skip ticks instead of catching up, if running too late
+                next += period;
+                if (now - next > period) next = now + period;
+            }
+        } catch (IOException e) {
+            LOG.log(Level.SEVERE, "The selector failed", e);
+        } finally {
+            for (Session session : sessions) session.close();
+            sessions.clear();
+            open = 0;
+            closeAccepted();
+            try {
+                selector.close();
+            } catch (IOException e) {
+                LOG.log(Level.FINE, "Could not close the selector", e);
+            }
+        }
+    }
+
+    /**
+     * Registers the new connections. A connection, that could not be
+     * configured, is closed without affecting the others.
+     */
+    private void register() {
+        for (SocketChannel channel; (channel = accepted.poll()) != null;) {
+            Session session = new Session(channel, width, height,
+                    new RandomGenerator(seeds.split()));
+            try {
+                channel.configureBlocking(false);
+                channel.socket().setTcpNoDelay(true);
+                session.setKey(channel.register(selector,
+                        SelectionKey.OP_READ, session));
+            } catch (IOException e) {
+                LOG.log(Level.FINE, "Could not register a connection", e);
+                session.close();
+                continue;
+            }
+            session.setIndex(sessions.size());
+            sessions.add(session);
+        }
+        open = sessions.size();
+    }
+
+    /**
+     * Closes the connections, that have not been registered yet.
+     */
+    private void closeAccepted() {
+        for (SocketChannel channel; (channel = accepted.poll()) != null;) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                LOG.log(Level.FINE, "Could not close a connection", e);
+            }
+        }
+    }
+
+    /**
+     * Handles all connections, that are able to read or write. A session,
+     * that fails, is removed without affecting the others.
+     */
+    private void handle() {
+        Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+        while (keys.hasNext()) {
+            SelectionKey key = keys.next();
+            keys.remove();
+            Session session = (Session) key.attachment();
+            boolean alive;
+            try {
+                alive = key.isValid()
+                        && (!key.isReadable() || session.read())
+                        && (!key.isValid() || !key.isWritable()
+                        || session.write());
+            } catch (IOException | CancelledKeyException e) {
+                alive = false;
+            } catch (RuntimeException e) {
+                LOG.log(Level.WARNING, "A session failed", e);
+                alive = false;
+            }
+            if (!alive) remove(session.getIndex());
+        }
+    }
+
+    /**
+     * Ticks a session.
+     *
+     * @param session The session
+     * @return Whether the session is still open and did not fail
+     */
+    private boolean tick(Session session) {
+        try {
+            return session.tick();
+        } catch (IOException | CancelledKeyException e) {
+            return false;
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "A session failed", e);
+            return false;
+        }
+    }
+
+    /**
+     * Closes and removes a session. The last session takes its place, so no
+     * other session is moved.
+     *
+     * @param i The index of the session or -1, if it is already removed
+     */
+    private void remove(int i) {
+        if (i < 0) return;
+        Session session = sessions.get(i);
+        session.close();
+        session.setIndex(-1);
+        Session last = sessions.remove(sessions.size() - 1);
+        if (last != session) {
+            sessions.set(i, last);
+            last.setIndex(i);
+        }
+        open = sessions.size();
+    }
+
+}
@@ -0,0 +1,155 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.sim;
+
+// --------------------------------- Import(s) ---------------------------------
+import de.gianfelice.tetris.engine.Game;
+
+/**
+ * The combined results of many simulated games.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class Report {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The number of games. */
+    private long games;
+
+    /** The number of tetrominos of all games. */
+    private long pieces;
+
+    /** The number of removals of one to four lines at once. */
+    private final long[] clears = new long[5];
+
+    /** The lowest score. */
+    private long minScore = Long.MAX_VALUE;
+
+    /** The highest score. */
+    private long maxScore;
+
+    /** The sum of all scores. */
+    private double sumScore;
+
+    /** The sum of all squared scores. */
+    private double sumSquares;
+
+    /** The duration of all games in nanoseconds. */
+    private long nanos;
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Adds the result of a finished game.
+     *
+     * @param game The game
+     */
+    public void add(Game game) {
+        games++;
+        pieces += game.getPieces();
+        for (int i = 1; i < clears.length; i++) clears[i] += game.getClears(i);
+        long score = game.getScore();
+        minScore = Math.min(minScore, score);
+        maxScore = Math.max(maxScore, score);
+        sumScore += score;
+        sumSquares += (double) score * score;
+    }
+
+    /**
+     * Sets the duration of all games.
+     *
+     * @param nanos The duration in nanoseconds
+     */
+    public void finish(long nanos) {
+        this.nanos = nanos;
+    }
+
+    /**
+     * Returns the number of games.
+     *
+     * @return The number of games
+     */
+    public long getGames() {
+        return games;
+    }
+
+    /**
+     * Returns the number of tetrominos of all games.
+     *
+     * @return The number of tetrominos
+     */
+    public long getPieces() {
+        return pieces;
+    }
+
+    /**
+     * Returns, how often a given number of lines was removed at once.
+     *
+     * @param lines The number of lines between 1 and 4
+     * @return The number of removals
+     */
+    public long getClears(int lines) {
+        return clears[lines];
+    }
+
+    /**
+     * Returns the played games per second.
+     *
+     * @return The games per second
+     */
+    public double getGamesPerSecond() {
+        return games / (nanos / 1e9);
+    }
+
+    /**
+     * Returns the placed tetrominos per second.
+     *
+     * @return The tetrominos per second
+     */
+    public double getPiecesPerSecond() {
+        return pieces / (nanos / 1e9);
+    }
+
+    /**
+     * Returns the average score.
+     *
+     * @return The average score
+     */
+    public double getMeanScore() {
+        return games == 0 ? 0 : sumScore / games;
+    }
+
+    /**
+     * Returns the standard deviation of the scores.
+     *
+     * @return The standard deviation
+     */
+    public double getScoreDeviation() {
+        if (games == 0) return 0;
+        double mean = getMeanScore();
+        return Math.sqrt(Math.max(0, sumSquares / games - mean * mean));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("games      %d in %.3f s%n", games, nanos / 1e9));
+        sb.append(String.format("games/s    %.2f%n", getGamesPerSecond()));
+        sb.append(String.format("pieces/s   %.0f%n", getPiecesPerSecond()));
+        sb.append(String.format("lines      single %d, double %d, triple %d,"
+                + " tetris %d%n", clears[1], clears[2], clears[3], clears[4]));
+        sb.append(String.format("score      min %d, mean %.1f, max %d,"
+                + " stddev %.1f", games == 0 ? 0 : minScore, getMeanScore(),
+                maxScore, getScoreDeviation()));
+        return sb.toString();
+    }
+
+}
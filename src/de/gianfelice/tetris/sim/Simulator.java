@@ -0,0 +1,164 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.sim;
+
+// --------------------------------- Import(s) ---------------------------------
+import de.gianfelice.tetris.ai.EvaluationCache;
+import de.gianfelice.tetris.ai.Heuristic;
+import de.gianfelice.tetris.ai.Placement;
+import de.gianfelice.tetris.ai.Planner;
+import de.gianfelice.tetris.engine.Board;
+import de.gianfelice.tetris.engine.Game;
+import de.gianfelice.tetris.engine.Generator;
+import de.gianfelice.tetris.engine.Preview;
+import de.gianfelice.tetris.engine.RandomGenerator;
+import de.gianfelice.tetris.engine.SplitRandom;
+import de.gianfelice.tetris.engine.Shape;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plays many complete games without any display on a fixed pool of workers
+ * and reports the throughput, the removed lines and the scores. Each game
+ * gets its own seeded source of tetrominos, so the results are reproducible
+ * and the workers never share any state.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class Simulator {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** Default width of the boards. */
+    private static final int WIDTH = 10;
+
+    /** Default height of the boards. */
+    private static final int HEIGHT = 19;
+
+    /** The width of the boards. */
+    private final int width;
+
+    /** The height of the boards. */
+    private final int height;
+
+    /** The planner steering the tetrominos. */
+    private final Planner planner;
+
+    /** The maximal number of tetrominos per game. */
+    private final long limit;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates a simulator.
+     *
+     * @param width   The width of the boards
+     * @param height  The height of the boards
+     * @param planner The planner steering the tetrominos, which should search
+     *                sequentially
+     * @param limit   The maximal number of tetrominos per game
+     */
+    public Simulator(int width, int height, Planner planner, long limit) {
+        this.width = width;
+        this.height = height;
+        this.planner = planner;
+        this.limit = limit;
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Runs the simulator from the command-line.
+     *
+     * @param args {@code [games] [threads] [seed] [depth] [limit] [cache]
+     *             [size]}, where the cache is the number of cached ratings
+     *             or 0 and the size is given as {@code <width>x<height>}
+     * @throws InterruptedException If interrupted while waiting for the games
+     * @throws ExecutionException   If a game failed
+     */
+    public static void main(String[] args) throws InterruptedException,
+            ExecutionException {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int threads = args.length > 1 ? Integer.parseInt(args[1])
+                : Runtime.getRuntime().availableProcessors();
+        long seed = args.length > 2 ? Long.parseLong(args[2]) : 42;
+        int depth = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+        long limit = args.length > 4 ? Long.parseLong(args[4]) : 10000;
+        int size = args.length > 5 ? Integer.parseInt(args[5]) : 1 << 18;
+        int[] board = args.length > 6 ? Board.parseSize(args[6])
+                : new int[] {WIDTH, HEIGHT};
+
+        EvaluationCache cache = size > 0 ? new EvaluationCache(size) : null;
+        Simulator sim = new Simulator(board[0], board[1],
+                new Planner(null, Heuristic.DEFAULT, depth, cache), limit);
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            System.out.println(sim.run(workers, games, seed));
+            if (cache != null) System.out.println(cache);
+        } finally {
+            workers.shutdown();
+        }
+    }
+
+    /**
+     * Plays a number of games on the given workers and waits for all of
+     * them.
+     *
+     * @param workers The workers to play on
+     * @param games   The number of games
+     * @param seed    The seed, from which the seed of every game is derived
+     * @return The combined results
+     * @throws InterruptedException If interrupted while waiting for the games
+     * @throws ExecutionException   If a game failed
+     */
+    public Report run(ExecutorService workers, int games, final long seed)
+            throws InterruptedException, ExecutionException {
+        long start = System.nanoTime();
+        List<Future<Game>> futures = new ArrayList<>(games);
+        for (int i = 0; i < games; i++) {
+            final long gameSeed = seed + i * 0x9E3779B97F4A7C15L;
+            futures.add(workers.submit(new Callable<Game>() {
+                @Override
+                public Game call() {
+                    return play(new RandomGenerator(new SplitRandom(gameSeed)));
+                }
+            }));
+        }
+
+        Report report = new Report();
+        for (Future<Game> f : futures) report.add(f.get());
+        report.finish(System.nanoTime() - start);
+        return report;
+    }
+
+    /**
+     * Plays a single game until it is over or reached the limit.
+     *
+     * @param generator The source of the tetrominos
+     * @return The finished game
+     */
+    public Game play(Generator generator) {
+        Game game = new Game(width, height, generator);
+        Preview preview = game.getPreview();
+        Shape[] pieces = new Shape[1 + preview.size()];
+        while (!game.isGameOver() && game.getPieces() < limit) {
+            pieces[0] = game.getCurrent();
+            for (int i = 0; i < preview.size(); i++)
+                pieces[i + 1] = preview.peek(i);
+            Placement p = planner.plan(game.getBoard(), pieces, game.getX(),
+                    game.getY());
+            if (p == null) break;
+            game.place(p.getState(), p.getX());
+        }
+        return game;
+    }
+
+}
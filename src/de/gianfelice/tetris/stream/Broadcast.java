@@ -0,0 +1,201 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.stream;
+
+// --------------------------------- Import(s) ---------------------------------
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * A ring of bytes written by one thread and sent to many receivers. Every
+ * byte is encoded only once, each receiver only remembers its position and
+ * is sent the bytes straight from the ring, so the costs per receiver do not
+ * depend on what is sent.
+ * <p>
+ * The writer puts bytes and publishes them with {@link #publish()}. A new
+ * receiver starts at the last published keyframe. A receiver, that falls
+ * behind by more than half of the ring, is lost and should skip to the last
+ * keyframe. If it falls behind by more than three quarters, it has to be
+ * dropped, since the writer is about to overwrite its bytes.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class Broadcast {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The bytes. */
+    private final byte[] ring;
+
+    /** The mask turning a position into an index of the ring. */
+    private final int mask;
+
+    /** The position of the next byte to put. */
+    private long pending;
+
+    /** The position of the keyframe being put or -1. */
+    private long pendingKeyframe = -1;
+
+    /** The position up to which all bytes are published. */
+    private volatile long written;
+
+    /** The position of the last published keyframe or -1. */
+    private volatile long keyframe = -1;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates a ring.
+     *
+     * @param capacity The number of bytes, which must be a power of two
+     * @throws IllegalArgumentException If the capacity is no power of two
+     */
+    public Broadcast(int capacity) {
+        if (capacity <= 0 || Integer.bitCount(capacity) != 1)
+            throw new IllegalArgumentException("Capacity is no power of two!");
+        ring = new byte[capacity];
+        mask = capacity - 1;
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Puts a byte, which is not sent before {@link #publish()}.
+     *
+     * @param b The byte
+     */
+    public void put(int b) {
+        ring[(int) (pending++ & mask)] = (byte) b;
+    }
+
+    /**
+     * Puts two bytes in big-endian order.
+     *
+     * @param s The bytes
+     */
+    public void putShort(int s) {
+        put(s >>> 8);
+        put(s);
+    }
+
+    /**
+     * Puts four bytes in big-endian order.
+     *
+     * @param i The bytes
+     */
+    public void putInt(int i) {
+        put(i >>> 24);
+        put(i >>> 16);
+        put(i >>> 8);
+        put(i);
+    }
+
+    /**
+     * Marks the next byte to put as the start of a keyframe.
+     */
+    public void beginKeyframe() {
+        pendingKeyframe = pending;
+    }
+
+    /**
+     * Publishes all bytes put so far.
+     */
+    public void publish() {
+        if (pendingKeyframe >= 0) keyframe = pendingKeyframe;
+        pendingKeyframe = -1;
+        written = pending;
+    }
+
+    /**
+     * Returns the position up to which all bytes are published.
+     *
+     * @return The position
+     */
+    public long getWritten() {
+        return written;
+    }
+
+    /**
+     * Returns the position of the last published keyframe.
+     *
+     * @return The position or -1, if there is none yet
+     */
+    public long getKeyframe() {
+        return keyframe;
+    }
+
+    /**
+     * Returns the number of bytes of the ring.
+     *
+     * @return The capacity
+     */
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    /**
+     * Returns, whether a receiver at a position fell too far behind to keep
+     * up.
+     *
+     * @param position The position of the receiver
+     * @return Whether the receiver should skip to the last keyframe
+     */
+    public boolean isLost(long position) {
+        return written - position > ring.length / 2;
+    }
+
+    /**
+     * Returns, whether the bytes at a position are about to be overwritten.
+     *
+     * @param position The position of the receiver
+     * @return Whether the receiver has to be dropped
+     */
+    public boolean isOverrun(long position) {
+        return written - position > ring.length / 4 * 3;
+    }
+
+    /**
+     * Returns a published byte.
+     *
+     * @param position The position of the byte
+     * @return The byte as an unsigned value
+     */
+    int get(long position) {
+        return ring[(int) (position & mask)] & 0xFF;
+    }
+
+    /**
+     * Sends the published bytes between two positions without blocking.
+     *
+     * @param channel The channel, which must not block
+     * @param view    A buffer created by {@link #view()} for the receiver
+     * @param from    The position of the first byte to send
+     * @param to      The position after the last byte to send, which is
+     *                limited to the published bytes
+     * @return The number of sent bytes
+     * @throws IOException If sending failed
+     */
+    public int send(WritableByteChannel channel, ByteBuffer view, long from,
+            long to) throws IOException {
+        to = Math.min(to, written);
+        if (from >= to) return 0;
+        int start = (int) (from & mask);
+        int length = (int) Math.min(to - from, ring.length - start);
+        view.limit(start + length).position(start);
+        return channel.write(view);
+    }
+
+    /**
+     * Creates a buffer to send the bytes of the ring with.
+     *
+     * @return The buffer
+     */
+    public ByteBuffer view() {
+        return ByteBuffer.wrap(ring).asReadOnlyBuffer();
+    }
+
+}
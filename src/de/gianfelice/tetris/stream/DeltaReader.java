@@ -0,0 +1,192 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.stream;
+
+// --------------------------------- Import(s) ---------------------------------
+import de.gianfelice.tetris.engine.Board;
+import de.gianfelice.tetris.engine.Shape;
+import java.nio.ByteBuffer;
+
+/**
+ * Rebuilds a game from the events written by a {@link DeltaWriter}. Events
+ * before the first keyframe are skipped, since there is no board yet.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class DeltaReader {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The rebuilt board or null before the first keyframe. */
+    private Board board;
+
+    /** The shape of the tetromino or null. */
+    private Shape shape;
+
+    /** The rotation state of the tetromino. */
+    private int state;
+
+    /** The x-coordinate of the tetromino. */
+    private int x;
+
+    /** The y-coordinate of the tetromino. */
+    private int y;
+
+    /** The type of the last read event. */
+    private int type = -1;
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Reads and applies the next event, if it is complete.
+     *
+     * @param in The received bytes
+     * @return Whether an event was read
+     * @throws IllegalStateException If the event does not fit the board
+     */
+    public boolean read(ByteBuffer in) {
+        int size = size(in);
+        if (size < 0 || in.remaining() < size) return false;
+        int header = in.get() & 0xFF;
+        type = header & 7;
+        switch (type) {
+            case DeltaWriter.SPAWN:
+                shape = Shape.values()[header >>> 3];
+                state = 0;
+                x = in.get();
+                y = in.getShort();
+                break;
+            case DeltaWriter.MOVE:
+                state = header >>> 3;
+                x = in.get();
+                y = in.getShort();
+                break;
+            case DeltaWriter.LOCK:
+                int mask = in.getShort() & 0xFFFF;
+                x = in.get();
+                y = in.getShort();
+                if (board != null) board.place(mask, x, y);
+                break;
+            case DeltaWriter.CLEAR:
+                in.getShort();
+                int rows = Integer.bitCount(in.get() & 0xFF);
+                if (board != null && board.clearLines() != rows)
+                    throw new IllegalStateException("Stream out of sync!");
+                break;
+            case DeltaWriter.KEYFRAME:
+                keyframe(in);
+                break;
+            default:
+                throw new IllegalStateException("Unknown event " + type);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the type of the last read event.
+     *
+     * @return The type or -1, if nothing was read yet
+     */
+    public int getType() {
+        return type;
+    }
+
+    /**
+     * Returns the rebuilt board.
+     *
+     * @return The board or null before the first keyframe
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Returns the shape of the tetromino.
+     *
+     * @return The shape or null
+     */
+    public Shape getShape() {
+        return shape;
+    }
+
+    /**
+     * Returns the rotation state of the tetromino.
+     *
+     * @return The state
+     */
+    public int getState() {
+        return state;
+    }
+
+    /**
+     * Returns the x-coordinate of the tetromino.
+     *
+     * @return The x-coordinate
+     */
+    public int getX() {
+        return x;
+    }
+
+    /**
+     * Returns the y-coordinate of the tetromino.
+     *
+     * @return The y-coordinate
+     */
+    public int getY() {
+        return y;
+    }
+
+    /**
+     * Replaces the board by a keyframe.
+     *
+     * @param in The received bytes after the header
+     */
+    private void keyframe(ByteBuffer in) {
+        int width = in.get() & 0xFF, height = in.getShort();
+        int top = in.getShort(), bytes = DeltaWriter.bytesPerRow(width);
+        if (board == null || board.getWidth() != width
+                || board.getHeight() != height)
+            board = new Board(width, height);
+        else board.reset();
+        for (int r = 0; r < top; r++) {
+            long row = 0;
+            for (int i = 0; i < bytes; i++)
+                row |= (in.get() & 0xFFL) << (8 * i);
+            for (int c = 0; c < width; c++) {
+                if ((row & (1L << c)) != 0) board.place(1, c, r);
+            }
+        }
+        board.clearLines();
+        int s = in.get();
+        shape = s == 7 ? null : Shape.values()[s];
+        state = in.get();
+        x = in.get();
+        y = in.getShort();
+    }
+
+    /**
+     * Calculates the size of the next event.
+     *
+     * @param in The received bytes
+     * @return The size or -1, if it is not known yet
+     */
+    private static int size(ByteBuffer in) {
+        if (!in.hasRemaining()) return -1;
+        switch (in.get(in.position()) & 7) {
+            case DeltaWriter.LOCK:
+                return 6;
+            case DeltaWriter.KEYFRAME:
+                if (in.remaining() < 6) return -1;
+                int width = in.get(in.position() + 1) & 0xFF;
+                int top = in.getShort(in.position() + 4);
+                return 11 + top * DeltaWriter.bytesPerRow(width);
+            default:
+                return 4;
+        }
+    }
+
+}
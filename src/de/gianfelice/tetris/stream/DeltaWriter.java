@@ -0,0 +1,216 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.stream;
+
+// --------------------------------- Import(s) ---------------------------------
+import de.gianfelice.tetris.engine.Board;
+import de.gianfelice.tetris.engine.Shape;
+
+/**
+ * Encodes the changes of a game into a {@link Broadcast}. Every event starts
+ * with a byte, whose lowest three bits give the type:
+ * <pre>
+ * SPAWN     bits 3-5 shape, byte x, short y
+ * MOVE      bits 3-4 state, byte x, short y
+ * LOCK      short mask, byte x, short y
+ * CLEAR     short lowest row, byte rows above it (bit 0 is the lowest row)
+ * KEYFRAME  byte width, short height, short top, the rows below the top
+ *           with one bit per column rounded up to whole bytes, byte shape
+ *           (7 for none), byte state, byte x, short y
+ * </pre>
+ * All events but the keyframe have a fixed size of at most six bytes, no
+ * matter how large or full the board is. A keyframe holds the whole board,
+ * so that new receivers are able to join, but the empty rows above the
+ * highest box are left out. A keyframe is due, whenever an eighth of the
+ * ring has been written since the last one, so a receiver joining there is
+ * never lost, however many moves a tetromino needs on a tall board.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class DeltaWriter {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** A new tetromino entered the board. */
+    public static final int SPAWN = 0;
+
+    /** The tetromino moved or rotated. */
+    public static final int MOVE = 1;
+
+    /** The tetromino was saved inside the board. */
+    public static final int LOCK = 2;
+
+    /** Full rows were removed. */
+    public static final int CLEAR = 3;
+
+    /** The whole board. */
+    public static final int KEYFRAME = 4;
+
+    /** The ring to write into. */
+    private final Broadcast broadcast;
+
+    /** The position after the last keyframe. */
+    private long keyframeEnd;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates the writer.
+     *
+     * @param broadcast The ring to write into
+     */
+    public DeltaWriter(Broadcast broadcast) {
+        this.broadcast = broadcast;
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Writes a new tetromino.
+     *
+     * @param shape The shape
+     * @param x     The x-coordinate
+     * @param y     The y-coordinate
+     */
+    public void spawn(Shape shape, int x, int y) {
+        broadcast.put(SPAWN | shape.ordinal() << 3);
+        broadcast.put(x);
+        broadcast.putShort(y);
+        broadcast.publish();
+    }
+
+    /**
+     * Writes the position of the tetromino.
+     *
+     * @param state The rotation state
+     * @param x     The x-coordinate
+     * @param y     The y-coordinate
+     */
+    public void move(int state, int x, int y) {
+        broadcast.put(MOVE | state << 3);
+        broadcast.put(x);
+        broadcast.putShort(y);
+        broadcast.publish();
+    }
+
+    /**
+     * Writes the saving of a tetromino.
+     *
+     * @param mask The 4x4-mask of the tetromino
+     * @param x    The x-coordinate
+     * @param y    The y-coordinate
+     */
+    public void lock(int mask, int x, int y) {
+        broadcast.put(LOCK);
+        broadcast.putShort(mask);
+        broadcast.put(x);
+        broadcast.putShort(y);
+        broadcast.publish();
+    }
+
+    /**
+     * Writes the rows removed by the last {@link Board#clearLines()}. Since
+     * only one tetromino is saved before each clearing, all rows are within
+     * four rows of the lowest one.
+     *
+     * @param board The board
+     * @param count The number of removed rows
+     */
+    public void clear(Board board, int count) {
+        if (count == 0) return;
+        int lowest = board.getCleared(0), rows = 0;
+        for (int i = 0; i < count; i++)
+            rows |= 1 << (board.getCleared(i) - lowest);
+        broadcast.put(CLEAR);
+        broadcast.putShort(lowest);
+        broadcast.put(rows);
+        broadcast.publish();
+    }
+
+    /**
+     * Writes the whole board and the tetromino.
+     *
+     * @param board The board
+     * @param shape The shape of the tetromino or null
+     * @param state The rotation state
+     * @param x     The x-coordinate
+     * @param y     The y-coordinate
+     */
+    public void keyframe(Board board, Shape shape, int state, int x, int y) {
+        broadcast.beginKeyframe();
+        broadcast.put(KEYFRAME);
+        broadcast.put(board.getWidth());
+        broadcast.putShort(board.getHeight());
+        broadcast.putShort(board.getTop());
+        int bytes = bytesPerRow(board.getWidth());
+        for (int r = 0; r < board.getTop(); r++) {
+            long row = board.getRow(r);
+            for (int i = 0; i < bytes; i++, row >>>= 8)
+                broadcast.put((int) row);
+        }
+        broadcast.put(shape == null ? 7 : shape.ordinal());
+        broadcast.put(state);
+        broadcast.put(x);
+        broadcast.putShort(y);
+        broadcast.publish();
+        keyframeEnd = broadcast.getWritten();
+    }
+
+    /**
+     * Returns, whether so many bytes have been written since the last
+     * keyframe, that the next one should follow now.
+     *
+     * @return Whether a keyframe is due
+     */
+    public boolean isKeyframeDue() {
+        return broadcast.getWritten() - keyframeEnd
+                > broadcast.getCapacity() / 8;
+    }
+
+    /**
+     * Returns a capacity of the {@link Broadcast} for a board, which holds
+     * several keyframes of a full board.
+     *
+     * @param width  The width of the board
+     * @param height The height of the board
+     * @return The capacity, which is a power of two
+     */
+    public static int capacity(int width, int height) {
+        int keyframe = 11 + height * bytesPerRow(width);
+        return Math.max(1 << 16, Integer.highestOneBit(keyframe) << 3);
+    }
+
+    /**
+     * Returns the size of a published event.
+     *
+     * @param broadcast The ring holding the event
+     * @param position  The position of the event
+     * @return The number of bytes
+     */
+    static int size(Broadcast broadcast, long position) {
+        switch (broadcast.get(position) & 7) {
+            case LOCK:
+                return 6;
+            case KEYFRAME:
+                int top = broadcast.get(position + 4) << 8
+                        | broadcast.get(position + 5);
+                return 11 + top * bytesPerRow(broadcast.get(position + 1));
+            default:
+                return 4;
+        }
+    }
+
+    /**
+     * Returns the number of bytes of a row inside a keyframe.
+     *
+     * @param width The width of the board
+     * @return The number of bytes
+     */
+    static int bytesPerRow(int width) {
+        return (width + 7) >> 3;
+    }
+
+}
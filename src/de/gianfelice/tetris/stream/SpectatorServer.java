@@ -0,0 +1,319 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.stream;
+
+// --------------------------------- Import(s) ---------------------------------
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sends a {@link Broadcast} to every spectator connected by TCP. The server
+ * runs on its own thread and looks for new bytes every few milliseconds, so
+ * the game never waits for a spectator. A new spectator starts at the last
+ * keyframe. A spectator falling too far behind skips to the last keyframe
+ * after the event it is receiving, so only a spectator, whose bytes the
+ * ring overwrites before that, is disconnected.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public class SpectatorServer implements Runnable {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The logger of the server. */
+    private static final Logger LOG =
+            Logger.getLogger(SpectatorServer.class.getName());
+
+    /** The time between two looks for new bytes in milliseconds. */
+    private static final long PERIOD = 10;
+
+    /** The bytes to send. */
+    private final Broadcast broadcast;
+
+    /** The channel accepting new spectators. */
+    private final ServerSocketChannel acceptor;
+
+    /** The selector waiting for all connections. */
+    private final Selector selector;
+
+    /** The connected spectators. */
+    private final List<Spectator> spectators = new ArrayList<>();
+
+    /** The buffer for discarding anything sent by a spectator. */
+    private final ByteBuffer discard = ByteBuffer.allocate(64);
+
+    /** The number of connected spectators, which is read by other threads. */
+    private volatile int connected;
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * Creates and starts the server.
+     *
+     * @param broadcast The bytes to send
+     * @param port      The port or 0 to choose a free one
+     * @throws IOException If the port could not be bound
+     */
+    public SpectatorServer(Broadcast broadcast, int port) throws IOException {
+        this.broadcast = broadcast;
+        selector = Selector.open();
+        acceptor = ServerSocketChannel.open();
+        acceptor.bind(new InetSocketAddress(port));
+        acceptor.configureBlocking(false);
+        acceptor.register(selector, SelectionKey.OP_ACCEPT);
+        Thread thread = new Thread(this, "Spectators");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Returns the port, the server listens on.
+     *
+     * @return The port
+     */
+    public int getPort() {
+        return acceptor.socket().getLocalPort();
+    }
+
+    /**
+     * Returns the number of connected spectators.
+     *
+     * @return The number of spectators
+     */
+    public int getConnected() {
+        return connected;
+    }
+
+    /**
+     * Stops the server and disconnects all spectators.
+     */
+    public void stop() {
+        try {
+            acceptor.close();
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "Could not close the acceptor", e);
+        }
+        selector.wakeup();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void run() {
+        try {
+            while (acceptor.isOpen()) {
+                selector.select(PERIOD);
+                Iterator<SelectionKey> keys =
+                        selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (key.isValid() && key.isAcceptable()) accept();
+                    else if (key.isValid() && key.isReadable())
+                        read((Spectator) key.attachment());
+                }
+                for (int i = spectators.size() - 1; i >= 0; i--) {
+                    if (!send(spectators.get(i))) remove(i);
+                }
+            }
+        } catch (IOException e) {
+            if (acceptor.isOpen())
+                LOG.log(Level.SEVERE, "The spectators failed", e);
+        } finally {
+            for (Spectator spectator : spectators) close(spectator);
+            spectators.clear();
+            connected = 0;
+            try {
+                selector.close();
+            } catch (IOException e) {
+                LOG.log(Level.FINE, "Could not close the selector", e);
+            }
+        }
+    }
+
+    /**
+     * Accepts a new spectator.
+     *
+     * @throws IOException If the connection failed
+     */
+    private void accept() throws IOException {
+        SocketChannel channel = acceptor.accept();
+        if (channel == null) return;
+        channel.configureBlocking(false);
+        Spectator spectator = new Spectator(channel, broadcast.view());
+        channel.register(selector, SelectionKey.OP_READ, spectator);
+        spectators.add(spectator);
+        connected = spectators.size();
+    }
+
+    /**
+     * Discards anything sent by a spectator and notices, when it leaves.
+     *
+     * @param spectator The spectator
+     */
+    private void read(Spectator spectator) {
+        try {
+            discard.clear();
+            if (spectator.channel.read(discard) >= 0) return;
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "A spectator failed", e);
+        }
+        close(spectator);
+    }
+
+    /**
+     * Sends the new bytes to a spectator. A lost spectator keeps the rest of
+     * its current event in its own buffer and skips to the last keyframe, so
+     * its stream stays complete.
+     *
+     * @param spectator The spectator
+     * @return Whether the spectator is still connected
+     */
+    private boolean send(Spectator spectator) {
+        if (!spectator.channel.isOpen()) return false;
+        if (spectator.position < 0) {
+            spectator.position = broadcast.getKeyframe();
+            spectator.event = spectator.position;
+            if (spectator.position < 0) return true;
+        }
+        try {
+            for (int n = 1; n > 0;) {
+                if (!sendRest(spectator)) return true;
+                if (broadcast.isLost(spectator.position)
+                        && !resync(spectator))
+                    return false;
+                if (!sendRest(spectator)) return true;
+                n = broadcast.send(spectator.channel, spectator.view,
+                        spectator.position, broadcast.getWritten());
+                spectator.position += n;
+                while (spectator.event < spectator.position) {
+                    spectator.event += DeltaWriter.size(broadcast,
+                            spectator.event);
+                }
+            }
+        } catch (IOException e) {
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Sends the rest of the event a spectator received before skipping to a
+     * keyframe.
+     *
+     * @param spectator The spectator
+     * @return Whether the rest has been sent completely
+     * @throws IOException If sending failed
+     */
+    private static boolean sendRest(Spectator spectator) throws IOException {
+        if (spectator.rest == null || !spectator.rest.hasRemaining())
+            return true;
+        spectator.channel.write(spectator.rest);
+        return !spectator.rest.hasRemaining();
+    }
+
+    /**
+     * Moves a lost spectator to the last keyframe. The rest of the event,
+     * it has received partly, is copied before the ring overwrites it.
+     *
+     * @param spectator The spectator
+     * @return Whether the spectator could be moved
+     */
+    private boolean resync(Spectator spectator) {
+        long keyframe = broadcast.getKeyframe();
+        if (keyframe < spectator.event || broadcast.isLost(keyframe)
+                || broadcast.isOverrun(spectator.position))
+            return false;
+        int length = (int) (spectator.event - spectator.position);
+        if (spectator.rest == null || spectator.rest.capacity() < length)
+            spectator.rest = ByteBuffer.allocate(length);
+        spectator.rest.clear();
+        for (long p = spectator.position; p < spectator.event; p++)
+            spectator.rest.put((byte) broadcast.get(p));
+        spectator.rest.flip();
+        if (broadcast.isOverrun(spectator.position)) return false;
+        spectator.position = keyframe;
+        spectator.event = keyframe;
+        return true;
+    }
+
+    /**
+     * Disconnects and removes a spectator. The last spectator takes its
+     * place.
+     *
+     * @param i The index of the spectator
+     */
+    private void remove(int i) {
+        close(spectators.get(i));
+        Spectator last = spectators.remove(spectators.size() - 1);
+        if (i < spectators.size()) spectators.set(i, last);
+        connected = spectators.size();
+    }
+
+    /**
+     * Disconnects a spectator.
+     *
+     * @param spectator The spectator
+     */
+    private static void close(Spectator spectator) {
+        try {
+            spectator.channel.close();
+        } catch (IOException e) {
+            LOG.log(Level.FINE, "Could not close a spectator", e);
+        }
+    }
+
+    // ---------------------------- Inner Class(es) ----------------------------
+    /**
+     * A connected spectator.
+     */
+    private static class Spectator {
+
+        /** The connection to the spectator. */
+        private final SocketChannel channel;
+
+        /** The buffer to send the bytes of the ring with. */
+        private final ByteBuffer view;
+
+        /** The position of the next byte to send or -1 before joining. */
+        private long position = -1;
+
+        /**
+         * The position of the next event, which lies beyond the position of
+         * the next byte, while an event has been sent only partly.
+         */
+        private long event = -1;
+
+        /** The rest of an event to send before the keyframe or null. */
+        private ByteBuffer rest;
+
+        /**
+         * Creates a spectator.
+         *
+         * @param channel The connection to the spectator
+         * @param view    The buffer to send the bytes of the ring with
+         */
+        private Spectator(SocketChannel channel, ByteBuffer view) {
+            this.channel = channel;
+            this.view = view;
+        }
+
+    }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * This work is licensed under the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 3.0 Unported License.
+ * 
+ * To view a copy of this license, visit
+ * http://creativecommons.org/licenses/by-nc-sa/3.0/.
+ */
+package de.gianfelice.tetris.stream;
+
+// --------------------------------- Import(s) ---------------------------------
+import de.gianfelice.tetris.engine.Board;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Spectates a game from the command-line. The board is rebuilt from the
+ * stream and printed for every new tetromino together with the number
+ * of received bytes.
+ *
+ * @author Matthias Gianfelice
+ * @version 1.0.0.0
+ */
+public final class Watch {
+
+    // ------------------------------ Attribute(s) -----------------------------
+    /** The size of the largest event, a keyframe of the largest board. */
+    private static final int MAX_EVENT = 11 + Board.MAX_HEIGHT
+            * DeltaWriter.bytesPerRow(Board.MAX_WIDTH);
+
+    // ----------------------------- Constructor(s) ----------------------------
+    /**
+     * No instances needed.
+     */
+    private Watch() {}
+
+    // ------------------------------- Method(s) -------------------------------
+    /**
+     * Connects to a game and prints it.
+     *
+     * @param args {@code [host] port}
+     * @throws IOException If the connection failed
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: Watch [host] <port>");
+            System.exit(2);
+        }
+        String host = args.length > 1 ? args[0] : "localhost";
+        int port = Integer.parseInt(args[args.length - 1]);
+
+        DeltaReader reader = new DeltaReader();
+        ByteBuffer in = ByteBuffer.allocate(1 << 16);
+        long bytes = 0;
+        try (SocketChannel channel = SocketChannel.open(
+                new InetSocketAddress(host, port))) {
+            for (int n; (n = channel.read(in)) >= 0;) {
+                bytes += n;
+                in.flip();
+                while (reader.read(in)) {
+                    if (reader.getType() == DeltaWriter.SPAWN
+                            || reader.getType() == DeltaWriter.KEYFRAME)
+                        print(reader.getBoard(), bytes);
+                }
+                in.compact();
+                if (!in.hasRemaining()) in = grow(in);
+            }
+        }
+    }
+
+    /**
+     * Doubles the size of a buffer, which is filled by a single incomplete
+     * event, e.g. the keyframe of a large board.
+     *
+     * @param in The full buffer
+     * @return The larger buffer holding the same bytes
+     * @throws IOException If the event is larger than any valid one
+     */
+    private static ByteBuffer grow(ByteBuffer in) throws IOException {
+        if (in.capacity() >= MAX_EVENT)
+            throw new IOException("Event too large!");
+        ByteBuffer larger = ByteBuffer.allocate(in.capacity() * 2);
+        in.flip();
+        larger.put(in);
+        return larger;
+    }
+
+    /**
+     * Prints a board.
+     *
+     * @param board The board
+     * @param bytes The number of received bytes
+     */
+    private static void print(Board board, long bytes) {
+        StringBuilder sb = new StringBuilder();
+        for (int y = board.getHeight() - 1; y >= 0; y--) {
+            sb.append('|');
+            for (int x = 0; x < board.getWidth(); x++)
+                sb.append(board.isOccupied(x, y) ? '#' : ' ');
+            sb.append("|\n");
+        }
+        sb.append(bytes).append(" bytes\n");
+        System.out.print(sb);
+    }
+
+}
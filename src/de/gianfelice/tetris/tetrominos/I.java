@@ -10,8 +10,8 @@ package de.gianfelice.tetris.tetrominos;
 // --------------------------------- Import(s) ---------------------------------
 import com.jme3.asset.AssetManager;
 import com.jme3.math.ColorRGBA;
-import com.jme3.scene.Geometry;
 import de.gianfelice.tetris.Field;
+import de.gianfelice.tetris.engine.Shape;
 
 /**
  * The I tetromino.
@@ -31,12 +31,7 @@ public class I extends Tetromino {
      * @param field        The field of the game
      */
     public I(String name, AssetManager assetManager, Field field) {
-        super(name, assetManager, field, ColorRGBA.Cyan);
-        for (int i = 0; i < 4; i++) {
-            Geometry box = createBox();
-            registerBox(box, 0, 1, i);
-            registerBox(box, 1, i, 1);
-        }
+        super(name, assetManager, field, Shape.I, ColorRGBA.Cyan);
     }
 
     // ------------------------------- Method(s) -------------------------------
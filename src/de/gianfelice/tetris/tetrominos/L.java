@@ -10,8 +10,8 @@ package de.gianfelice.tetris.tetrominos;
 // --------------------------------- Import(s) ---------------------------------
 import com.jme3.asset.AssetManager;
 import com.jme3.math.ColorRGBA;
-import com.jme3.scene.Geometry;
 import de.gianfelice.tetris.Field;
+import de.gianfelice.tetris.engine.Shape;
 
 /**
  * The L tetromino.
@@ -31,19 +31,7 @@ public class L extends Tetromino {
      * @param field        The field of the game
      */
     public L(String name, AssetManager assetManager, Field field) {
-        super(name, assetManager, field, ColorRGBA.Orange);
-        Geometry box = createBox();
-        registerBox(box, 0, 2, 1);
-        registerBox(box, 1, 0, 1);
-        registerBox(box, 2, 1, 3);
-        registerBox(box, 3, 2, 2);
-        for (int i = 0; i < 3; i++) {
-            box = createBox();
-            registerBox(box, 0, 1, i+1);
-            registerBox(box, 1, i, 2);
-            registerBox(box, 2, 2, 3-i);
-            registerBox(box, 3, 2-i, 1);
-        }
+        super(name, assetManager, field, Shape.L, ColorRGBA.Orange);
     }
 
     // ------------------------------- Method(s) -------------------------------
@@ -11,6 +11,7 @@ package de.gianfelice.tetris.tetrominos;
 import com.jme3.asset.AssetManager;
 import com.jme3.math.ColorRGBA;
 import de.gianfelice.tetris.Field;
+import de.gianfelice.tetris.engine.Shape;
 
 /**
  * The O tetromino.
@@ -30,11 +31,7 @@ public class O extends Tetromino {
      * @param field        The field of the game
      */
     public O(String name, AssetManager assetManager, Field field) {
-        super(name, assetManager, field, ColorRGBA.Yellow);
-        registerBox(createBox(), 0, 1, 2);
-        registerBox(createBox(), 0, 2, 2);
-        registerBox(createBox(), 0, 1, 3);
-        registerBox(createBox(), 0, 2, 3);
+        super(name, assetManager, field, Shape.O, ColorRGBA.Yellow);
     }
 
     // ------------------------------- Method(s) -------------------------------
@@ -10,8 +10,8 @@ package de.gianfelice.tetris.tetrominos;
 // --------------------------------- Import(s) ---------------------------------
 import com.jme3.asset.AssetManager;
 import com.jme3.math.ColorRGBA;
-import com.jme3.scene.Geometry;
 import de.gianfelice.tetris.Field;
+import de.gianfelice.tetris.engine.Shape;
 
 /**
  * The S tetromino.
@@ -31,15 +31,7 @@ public class S extends Tetromino {
      * @param field        The field of the game
      */
     public S(String name, AssetManager assetManager, Field field) {
-        super(name, assetManager, field, ColorRGBA.Green);
-        for (int i = 0; i < 2; i++) {
-            Geometry box = createBox();
-            registerBox(box, 0, i, 2);
-            registerBox(box, 1, 1, 3-i);
-            box = createBox();
-            registerBox(box, 0, i+1, 3);
-            registerBox(box, 1, 2, 2-i);
-        }
+        super(name, assetManager, field, Shape.S, ColorRGBA.Green);
     }
 
     // ------------------------------- Method(s) -------------------------------
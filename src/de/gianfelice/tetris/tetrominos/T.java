@@ -10,8 +10,8 @@ package de.gianfelice.tetris.tetrominos;
 // --------------------------------- Import(s) ---------------------------------
 import com.jme3.asset.AssetManager;
 import com.jme3.math.ColorRGBA;
-import com.jme3.scene.Geometry;
 import de.gianfelice.tetris.Field;
+import de.gianfelice.tetris.engine.Shape;
 
 /**
  * The T tetromino.
@@ -31,19 +31,7 @@ public class T extends Tetromino {
      * @param field        The field of the game
      */
     public T(String name, AssetManager assetManager, Field field) {
-        super(name, assetManager, field, ColorRGBA.Magenta);
-        Geometry box = createBox();
-        registerBox(box, 0, 1, 3);
-        registerBox(box, 1, 1, 2);
-        registerBox(box, 2, 1, 2);
-        registerBox(box, 3, 0, 2);
-        for (int i = 0; i < 3; i++) {
-            box = createBox();
-            registerBox(box, 0, i, 2);
-            registerBox(box, 1, 0, 3-i);
-            registerBox(box, 2, i, 3);
-            registerBox(box, 3, 1, i+1);
-        }
+        super(name, assetManager, field, Shape.T, ColorRGBA.Magenta);
     }
 
     // ------------------------------- Method(s) -------------------------------
@@ -9,18 +9,19 @@ package de.gianfelice.tetris.tetrominos;
 
 // --------------------------------- Import(s) ---------------------------------
 import com.jme3.asset.AssetManager;
-import com.jme3.material.Material;
 import com.jme3.math.ColorRGBA;
+import com.jme3.math.Vector3f;
 import com.jme3.scene.Geometry;
 import com.jme3.scene.Node;
-import com.jme3.scene.shape.Quad;
 import de.gianfelice.tetris.Field;
-import java.awt.Point;
-import java.util.ArrayList;
-import java.util.List;
+import de.gianfelice.tetris.Palette;
+import de.gianfelice.tetris.engine.Board;
+import de.gianfelice.tetris.engine.Shape;
 
 /**
- * A tetromino is the shape that falls and consists out of 4 boxes.
+ * A tetromino is the shape that falls and consists out of 4 boxes. The
+ * rotation states are taken from the shared {@link Shape}, so the tetromino
+ * only holds the boxes to display them.
  *
  * @author Matthias Gianfelice
  * @version 0.1.0.0
@@ -28,21 +29,21 @@ import java.util.List;
 public abstract class Tetromino extends Node {
 
     // ------------------------------ Attribute(s) -----------------------------
-    /** The shared material by all boxes. */
-    private Material mat;
+    /** The board of the game for collision-checking. */
+    private Board board;
 
-    /** The field of the game for collision-checking. */
-    private Field field;
+    /** The color of the boxes. */
+    private ColorRGBA color;
 
-    /** The different rotation states of the tetromino. */
-    private List<Geometry[][]> boxes;
+    /** The shape holding the rotation states. */
+    private Shape shape;
+
+    /** The four boxes in the order of the bits of the current mask. */
+    private Geometry[] boxes;
 
     /** The current state. */
     private int state = 0;
 
-    /** ID for naming. */
-    private int id = 0;
-
     // ----------------------------- Constructor(s) ----------------------------
     /**
      * Creates the tetromino and prepares it for the game.
@@ -50,16 +51,23 @@ public abstract class Tetromino extends Node {
      * @param name         The name for the tetromino
      * @param assetManager The app's assetmanager
      * @param field        The field of the game
+     * @param shape        The shape of the tetromino
      * @param color        A color for the contained boxes
      */
     public Tetromino(String name, AssetManager assetManager, Field field,
-            ColorRGBA color) {
+            Shape shape, ColorRGBA color) {
         super(name);
-        this.field = field;
-        boxes = new ArrayList<>();
-        boxes.add(new Geometry[4][4]);
-        mat = new Material(assetManager, "Common/MatDefs/Misc/Unshaded.j3md");
-        mat.setColor("Color", color);
+        this.board = field.getBoard();
+        this.shape = shape;
+        this.color = color;
+        Palette palette = Palette.get(assetManager);
+        boxes = new Geometry[4];
+        for (int i = 0; i < boxes.length; i++) {
+            boxes[i] = new Geometry(name + "#" + i, palette.getBox(color));
+            boxes[i].setMaterial(palette.getMaterial());
+            attachChild(boxes[i]);
+        }
+        update();
     }
 
     // ------------------------------- Method(s) -------------------------------
@@ -72,10 +80,9 @@ public abstract class Tetromino extends Node {
      * @return Whether the new position would be valid
      */
     public boolean validTranslate(int offsetX, int offsetY) {
-        Point p = getPosition();
-        p.x += offsetX;
-        p.y += offsetY;
-        return valid(boxes.get(state), p);
+        Vector3f t = getLocalTranslation();
+        return !board.collides(shape.getMask(state), (int) t.x + offsetX,
+                (int) t.y + offsetY);
     }
 
     /**
@@ -84,129 +91,115 @@ public abstract class Tetromino extends Node {
      * @return Whether rotating would be a valid action
      */
     public boolean validRotate() {
-        return valid(boxes.get(getNextState()), getPosition());
+        Vector3f t = getLocalTranslation();
+        return !board.collides(shape.getMask(shape.nextState(state)),
+                (int) t.x, (int) t.y);
     }
 
     /**
      * Changes the current state to the next one.
      */
     public void rotate() {
-        state = getNextState();
+        state = shape.nextState(state);
         update();
     }
 
     /**
-     * Returns the boxes that are assigned to the current state.
-     * 
+     * Returns the boxes in the order of the set bits of the current mask.
+     *
      * @return Current active boxes
      */
-    public Geometry[][] getBoxes() {
-        return boxes.get(state);
+    public Geometry[] getBoxes() {
+        return boxes;
     }
 
     /**
-     * Drops the tetromino to the bottom.
+     * Returns the shape of the tetromino.
+     *
+     * @return The shape
      */
-    public void drop() {
-        int n = 0;
-        while (validTranslate(0, n - 1)) n--;
-        move(0, n, 0);
+    public Shape getShape() {
+        return shape;
     }
 
     /**
-     * Calculates the position of the tetromino upon the field by fetching the
-     * local translation.
+     * Returns the color of the boxes.
      *
-     * @return The position of the tetromino
+     * @return The color
      */
-    public Point getPosition() {
-        Point p = new Point();
-        p.x = (int) getLocalTranslation().getX();
-        p.y = (int) getLocalTranslation().getY();
-        return p;
+    public ColorRGBA getColor() {
+        return color;
     }
 
     /**
-     * Creates, prepares and attaches a box. Note, that it isn't yet registred
-     * and therefore not aligned.
+     * Returns the current rotation state.
      *
-     * @return The newly created and prepared box.
-     * @see #registerBox(Geometry, int, int, int)
+     * @return The state
      */
-    protected Geometry createBox() {
-        Quad box = new Quad(.9f, .9f);
-        Geometry geom = new Geometry(getName() + "#" + id++, box);
-        geom.setMaterial(mat);
-        attachChild(geom);
-        return geom;
+    public int getState() {
+        return state;
     }
 
     /**
-     * Registres a box and binds a position to a given state. So that changing
-     * the state will also align the box.
+     * Returns the boxes of the current state as a mask, where the bit
+     * {@code y * 4 + x} is set, if the box at {@code (x, y)} exists.
      *
-     * @param geom  The box which must be created by {@link #createBox()}
-     * @param state The state to bind the box to
-     * @param x     The corresponding x-coordinate
-     * @param y     The corresponding y-coordinate
-     * @throws IllegalArgumentException  If the box was not created via
-     *                                   {@link #createBox()} or the given
-     *                                   coordinates do not fit inside a 4x4
-     * @throws IndexOutOfBoundsException The state must be inside the valid
-     *                                   range of 0 and the current size
+     * @return The mask of the current state
+     * @see Board
+     */
+    public int getMask() {
+        return shape.getMask(state);
+    }
+
+    /**
+     * Drops the tetromino to the bottom.
      */
-    protected void registerBox(Geometry geom, int state, int x, int y) {
-        if (!hasChild(geom)) throw new IllegalArgumentException(
-                    "Box is not created by this tetromino!");
-        if (state < 0 || boxes.size() < state)
-            throw new IndexOutOfBoundsException("State doesn't fit in!");
-        if (x < 0 || y < 0 || x >= 4 || y >= 4)
-            throw new IllegalArgumentException("The tertromino is a 4x4!");
-
-        if (boxes.size() == state) boxes.add(new Geometry[4][4]);
-        boxes.get(state)[x][y] = geom;
-        if (this.state == state) update();
+    public void drop() {
+        Vector3f t = getLocalTranslation();
+        int y = board.dropTo(shape.getMask(state), (int) t.x, (int) t.y);
+        setLocalTranslation(t.x, y, t.z);
+    }
+
+    /**
+     * Puts the tetromino back into its initial state, so that it can be
+     * spawned again: It is hidden, moved to the origin and not rotated. It
+     * stays attached, since changing the children of a node allocates.
+     */
+    public void reset() {
+        setCullHint(CullHint.Always);
+        setLocalTranslation(0, 0, 0);
+        state = 0;
+        update();
     }
 
     /**
-     * Rotating the tetromino just changes the state. This method gets the next
-     * state on the list.
+     * Returns the column of the tetromino upon the field by fetching the
+     * local translation.
      *
-     * @return Next rotating-state on the list
+     * @return The x-coordinate of the tetromino
      */
-    private int getNextState() {
-        int n = state + 1;
-        if (n >= boxes.size()) return 0;
-        return n;
+    public int getX() {
+        return (int) getLocalTranslation().x;
     }
-    
+
     /**
-     * Validates whether a new array of boxes would fit with a given offset.
-     * 
-     * @param boxes The array with boxes
-     * @param p     The offset
-     * @return Whether the new position would be valid
+     * Returns the row of the tetromino upon the field by fetching the local
+     * translation.
+     *
+     * @return The y-coordinate of the tetromino
      */
-    private boolean valid(Geometry[][] boxes, Point p) {
-        for (int x = 0, pX = p.x; x < 4; x++, pX++) {
-            for (int y = 0, pY = p.y; y < 4; y++, pY++) {
-                if (boxes[x][y] == null) continue;
-                if (field.isOccupied(pX, pY)) return false;
-            }
-        }
-        return true;
+    public int getY() {
+        return (int) getLocalTranslation().y;
     }
-    
+
     /**
      * Updates the position of each contained box.
      */
     private void update() {
-        for (int x = 0; x < 4; x++) {
-            for (int y = 0; y < 4; y++) {
-                Geometry box = boxes.get(state)[x][y];
-                if (box == null) continue;
-                box.setLocalTranslation(x + .05f, y + .05f, 0);
-            }
+        int mask = shape.getMask(state);
+        for (int i = 0, n = 0; i < 16; i++) {
+            if ((mask & (1 << i)) == 0) continue;
+            boxes[n++].setLocalTranslation((i & 3) + .05f, (i >> 2) + .05f, 0);
         }
     }
 